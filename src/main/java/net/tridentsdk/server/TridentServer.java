@@ -33,6 +33,7 @@ import net.tridentsdk.server.net.NetServer;
 import net.tridentsdk.server.player.TridentPlayer;
 import net.tridentsdk.server.plugin.TridentEventController;
 import net.tridentsdk.server.util.JiraExceptionCatcher;
+import net.tridentsdk.server.util.ZlibPool;
 import net.tridentsdk.server.world.TridentWorldLoader;
 import net.tridentsdk.ui.chat.ChatComponent;
 import net.tridentsdk.world.World;
@@ -230,6 +231,7 @@ public class TridentServer implements Server {
             }
             this.logger.log("Saving server config...");
             this.config.save();
+            this.logger.debug(ZlibPool.stats());
             this.logger.log("Shutting down server process...");
             ServerThreadPool.shutdownAll();
         } catch (IOException | InterruptedException e) {
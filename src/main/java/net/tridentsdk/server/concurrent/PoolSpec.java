@@ -44,10 +44,16 @@ public class PoolSpec implements ThreadFactory, ForkJoinPool.ForkJoinWorkerThrea
     public static final PoolSpec WORLDS = new PoolSpec("TRD - Worlds", 4, true);
     // World gen, chunk unloading and memory management
     public static final PoolSpec CHUNKS = new PoolSpec("TRD - Chunks", 4, true);
+    // Region file writes, kept apart so that saving never
+    // starves generation
+    public static final PoolSpec IO = new PoolSpec("TRD - IO", 2, false);
 
     // Self-explanatory
     public static final PoolSpec ENTITIES = new PoolSpec("TRD - Entities", 3, false);
     public static final PoolSpec PLAYERS = new PoolSpec("TRD - Players", 3, false);
+    // Play packet handlers, each client's packets are kept
+    // in order by its own serial executor
+    public static final PoolSpec PACKETS = new PoolSpec("TRD - Packets", 4, true);
 
     public static final PoolSpec SCHEDULER = new PoolSpec("TRD - Scheduler", 3, false);
     public static final PoolSpec PLUGINS = new PoolSpec("TRD - Plugins", 1, false);
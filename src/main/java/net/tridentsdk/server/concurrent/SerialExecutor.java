@@ -0,0 +1,145 @@
+/*
+ * Trident - A Multithreaded Server Alternative
+ * Copyright 2017 The TridentSDK Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.tridentsdk.server.concurrent;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An executor which runs its tasks one at a time, in the
+ * order they were submitted, using the threads of a shared
+ * pool.
+ *
+ * <p>Many serial executors can share the same pool while
+ * each of them still behaves like a single thread. Only a
+ * limited batch of tasks is run before the executor yields
+ * its thread back to the pool, so that a busy executor
+ * does not hold up the others.</p>
+ *
+ * <p>The amount of queued tasks is bounded;
+ * {@link #offer(Runnable)} fails once the limit is
+ * reached.</p>
+ */
+@ThreadSafe
+public class SerialExecutor implements Executor {
+    /**
+     * The amount of tasks run before yielding to other
+     * tasks in the pool
+     */
+    private static final int BATCH_SIZE = 32;
+
+    /**
+     * The pool which runs the tasks
+     */
+    private final Executor delegate;
+    /**
+     * The maximum amount of queued tasks
+     */
+    private final int capacity;
+    /**
+     * The tasks waiting to be run
+     */
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    /**
+     * The amount of tasks in the queue
+     */
+    private final AtomicInteger size = new AtomicInteger();
+    /**
+     * Whether the tasks are being run or are scheduled to
+     * run in the pool
+     */
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    /**
+     * Creates a new serial executor.
+     *
+     * @param delegate the pool that runs the tasks
+     * @param capacity the maximum amount of queued tasks
+     */
+    public SerialExecutor(Executor delegate, int capacity) {
+        this.delegate = delegate;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Queues the given task if the queue is not full.
+     *
+     * @param task the task to run
+     * @return {@code true} if the task was queued
+     */
+    public boolean offer(Runnable task) {
+        if (this.size.incrementAndGet() > this.capacity) {
+            this.size.decrementAndGet();
+            return false;
+        }
+
+        this.tasks.add(task);
+        this.schedule();
+        return true;
+    }
+
+    @Override
+    public void execute(@Nonnull Runnable command) {
+        if (!this.offer(command)) {
+            throw new RejectedExecutionException("Queue is full");
+        }
+    }
+
+    /**
+     * Obtains the amount of tasks which have not yet
+     * started running.
+     *
+     * @return the queued task count
+     */
+    public int size() {
+        return this.size.get();
+    }
+
+    private void schedule() {
+        if (this.scheduled.compareAndSet(false, true)) {
+            this.delegate.execute(this::run);
+        }
+    }
+
+    private void run() {
+        try {
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                Runnable task = this.tasks.poll();
+                if (task == null) {
+                    break;
+                }
+
+                this.size.decrementAndGet();
+                task.run();
+            }
+        } finally {
+            this.scheduled.set(false);
+
+            // Tasks may have been added after the last poll,
+            // or the batch ran out
+            if (!this.tasks.isEmpty()) {
+                this.schedule();
+            }
+        }
+    }
+}
@@ -56,8 +56,10 @@ public class ServerThreadPool implements Executor {
     public static void init() {
         forSpec(PoolSpec.WORLDS);
         forSpec(PoolSpec.CHUNKS);
+        forSpec(PoolSpec.IO);
         forSpec(PoolSpec.ENTITIES);
         forSpec(PoolSpec.PLAYERS);
+        forSpec(PoolSpec.PACKETS);
         forSpec(PoolSpec.PLUGINS);
         forSpec(PoolSpec.SCHEDULER);
     }
@@ -21,6 +21,7 @@ import net.tridentsdk.server.player.TridentPlayer;
 import net.tridentsdk.server.util.JiraExceptionCatcher;
 import net.tridentsdk.server.world.TridentWorld;
 import net.tridentsdk.server.world.TridentWorldLoader;
+import net.tridentsdk.server.world.WorldAutosave;
 
 import javax.annotation.concurrent.Immutable;
 import java.util.concurrent.TimeUnit;
@@ -69,6 +70,9 @@ public final class TridentTick extends Thread {
                 // Tick the scheduler
                 TridentScheduler.getInstance().tick();
 
+                // Use the rest of the tick to autosave
+                WorldAutosave.getInstance().tick(TICK_MILLIS - (System.currentTimeMillis() - start));
+
                 // Timing mechanics
                 long end = System.currentTimeMillis();
                 long elapsed = end - start;
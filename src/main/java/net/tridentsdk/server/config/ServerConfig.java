@@ -65,6 +65,35 @@ public class ServerConfig extends TridentConfig {
      * The Message-Of-The-Day ping response
      */
     private volatile String motd;
+    /**
+     * The seconds between each autosave
+     */
+    private volatile int autosaveInterval;
+    /**
+     * The amount of chunks queued for saving each tick
+     */
+    private volatile int autosaveChunksPerTick;
+    /**
+     * The amount of chunks sent to each player each tick
+     */
+    private volatile int chunksPerTick;
+    /**
+     * The amount of chunk bytes sent to each player each
+     * tick
+     */
+    private volatile int chunkBytesPerTick;
+    /**
+     * The seconds an unreferenced chunk stays loaded
+     */
+    private volatile int chunkUnloadDelay;
+    /**
+     * The amount of chunks unloaded in each world each tick
+     */
+    private volatile int chunkUnloadsPerTick;
+    /**
+     * The megabytes of chunks each world may keep loaded
+     */
+    private volatile int chunkCacheMemory;
     /**
      * Whether to enable netty leak detector
      */
@@ -170,6 +199,96 @@ public class ServerConfig extends TridentConfig {
         return this.motd;
     }
 
+    /**
+     * Obtains the amount of seconds between the start of
+     * each autosave.
+     *
+     * <p>By default, this needs to be 300</p>
+     *
+     * @return the autosave interval, or a value less than
+     * 1 if autosaving is disabled
+     */
+    public int autosaveInterval() {
+        return this.autosaveInterval;
+    }
+
+    /**
+     * Obtains the amount of changed chunks that autosave
+     * queues for writing in a single tick before adjusting
+     * for the time left in the tick.
+     *
+     * <p>By default, this needs to be 32</p>
+     *
+     * @return the autosave chunk budget
+     */
+    public int autosaveChunksPerTick() {
+        return this.autosaveChunksPerTick;
+    }
+
+    /**
+     * Obtains the most chunks that are sent to a single
+     * player in one tick.
+     *
+     * <p>By default, this needs to be 8</p>
+     *
+     * @return the chunk send budget
+     */
+    public int chunksPerTick() {
+        return this.chunksPerTick;
+    }
+
+    /**
+     * Obtains the most uncompressed chunk bytes that are
+     * sent to a single player in one tick. At least one
+     * chunk is sent each tick regardless of its size.
+     *
+     * <p>By default, this needs to be 262144</p>
+     *
+     * @return the chunk byte budget
+     */
+    public int chunkBytesPerTick() {
+        return this.chunkBytesPerTick;
+    }
+
+    /**
+     * Obtains the amount of seconds that a chunk which is
+     * no longer referenced stays loaded before it is
+     * unloaded.
+     *
+     * <p>By default, this needs to be 15</p>
+     *
+     * @return the chunk unload delay
+     */
+    public int chunkUnloadDelay() {
+        return this.chunkUnloadDelay;
+    }
+
+    /**
+     * Obtains the most chunks that are unloaded from a
+     * single world in one tick.
+     *
+     * <p>By default, this needs to be 32</p>
+     *
+     * @return the chunk unload budget
+     */
+    public int chunkUnloadsPerTick() {
+        return this.chunkUnloadsPerTick;
+    }
+
+    /**
+     * Obtains the amount of megabytes of memory which the
+     * loaded chunks of each world may hold before chunks
+     * that are not in use are evicted.
+     *
+     * <p>By default, this needs to be 256</p>
+     *
+     * @return the chunk memory ceiling, or a value less
+     * than or equal to 0 to never evict chunks
+     */
+    public int chunkCacheMemory() {
+        return this.chunkCacheMemory;
+    }
+
     @Override
     public void load() throws IOException {
         super.load();
@@ -181,5 +300,24 @@ public class ServerConfig extends TridentConfig {
         this.maxPlayers = this.getInt("max-players");
         this.motd = this.getString("motd");
         this.nettyLeakDetectorEnabled = this.getBoolean("netty-leak-detector");
+        this.autosaveInterval = this.getInt("autosave-interval", 300);
+        this.autosaveChunksPerTick = this.getInt("autosave-chunks-per-tick", 32);
+        this.chunksPerTick = this.getInt("chunks-per-tick", 8);
+        this.chunkBytesPerTick = this.getInt("chunk-bytes-per-tick", 262144);
+        this.chunkUnloadDelay = this.getInt("chunk-unload-delay", 15);
+        this.chunkUnloadsPerTick = this.getInt("chunk-unloads-per-tick", 32);
+        this.chunkCacheMemory = this.getInt("chunk-cache-memory", 256);
+    }
+
+    /**
+     * Obtains the value of the given key, or the default if
+     * the config was created before the key existed.
+     *
+     * @param key the key
+     * @param def the default value
+     * @return the config value
+     */
+    private int getInt(String key, int def) {
+        return this.hasKey(key) ? this.getInt(key) : def;
     }
 }
\ No newline at end of file
@@ -194,9 +194,11 @@ public abstract class TridentEntity implements Entity {
                 } else {
                     if (fromChunk != null) {
                         fromChunk.getEntitySet().remove(this);
+                        fromChunk.markDirty();
                     }
 
                     destChunk.getEntitySet().add(this);
+                    destChunk.markDirty();
 
                     Stream.concat(fromChunk == null ? Stream.empty() : fromChunk.getHolders().stream(), destChunk.getHolders().stream()).
                             distinct().
@@ -367,6 +369,7 @@ public abstract class TridentEntity implements Entity {
                 chunk.getOccupants().remove(this);
             } else {
                 chunk.getEntitySet().remove(this);
+                chunk.markDirty();
             }
         }
 
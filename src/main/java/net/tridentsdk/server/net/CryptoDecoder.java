@@ -0,0 +1,57 @@
+/*
+ * Trident - A Multithreaded Server Alternative
+ * Copyright 2017 The TridentSDK Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.tridentsdk.server.net;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.MessageToMessageDecoder;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import java.util.List;
+
+/**
+ * Decrypts the incoming stream once encryption has been
+ * enabled for the client.
+ *
+ * <p>AES/CFB8 is a stream cipher, so every buffer read
+ * from the socket is decrypted as soon as it arrives
+ * without waiting for a full packet.</p>
+ */
+@NotThreadSafe
+public class CryptoDecoder extends MessageToMessageDecoder<ByteBuf> {
+    /**
+     * The crypto module holding the decryption cipher
+     */
+    private final NetCrypto crypto;
+
+    /**
+     * Creates a new decryption stage.
+     *
+     * @param crypto the crypto module of the client
+     */
+    public CryptoDecoder(NetCrypto crypto) {
+        this.crypto = crypto;
+    }
+
+    @Override
+    protected void decode(ChannelHandlerContext ctx, ByteBuf msg, List<Object> out) throws Exception {
+        int len = msg.readableBytes();
+        ByteBuf decrypted = ctx.alloc().heapBuffer(len);
+        this.crypto.decrypt(msg, decrypted, len);
+        out.add(decrypted);
+    }
+}
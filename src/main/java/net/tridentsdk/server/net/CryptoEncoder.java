@@ -0,0 +1,52 @@
+/*
+ * Trident - A Multithreaded Server Alternative
+ * Copyright 2017 The TridentSDK Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.tridentsdk.server.net;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.MessageToByteEncoder;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Encrypts the outgoing stream once encryption has been
+ * enabled for the client.
+ */
+@NotThreadSafe
+public class CryptoEncoder extends MessageToByteEncoder<ByteBuf> {
+    /**
+     * The crypto module holding the encryption cipher
+     */
+    private final NetCrypto crypto;
+
+    /**
+     * Creates a new encryption stage.
+     *
+     * @param crypto the crypto module of the client
+     */
+    public CryptoEncoder(NetCrypto crypto) {
+        // Heap output lets the cipher write into the
+        // backing array directly
+        super(false);
+        this.crypto = crypto;
+    }
+
+    @Override
+    protected void encode(ChannelHandlerContext ctx, ByteBuf msg, ByteBuf out) throws Exception {
+        this.crypto.encrypt(msg, out);
+    }
+}
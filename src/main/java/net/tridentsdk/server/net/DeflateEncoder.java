@@ -0,0 +1,85 @@
+/*
+ * Trident - A Multithreaded Server Alternative
+ * Copyright 2017 The TridentSDK Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.tridentsdk.server.net;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.MessageToByteEncoder;
+import net.tridentsdk.server.TridentServer;
+import net.tridentsdk.server.util.ZlibPool;
+
+import javax.annotation.concurrent.Immutable;
+import java.util.zip.Deflater;
+
+import static net.tridentsdk.server.net.NetData.arr;
+import static net.tridentsdk.server.net.NetData.wvint;
+
+/**
+ * Compresses outgoing packets once compression has been
+ * enabled for the client.
+ *
+ * <p>Packets larger than the compression threshold are
+ * deflated straight from the backing array of the packet
+ * buffer into the backing array of the output buffer.</p>
+ */
+@Immutable
+@ChannelHandler.Sharable
+public class DeflateEncoder extends MessageToByteEncoder<ByteBuf> {
+    public DeflateEncoder() {
+        super(false);
+    }
+
+    @Override
+    protected void encode(ChannelHandlerContext ctx, ByteBuf msg, ByteBuf out) throws Exception {
+        compress(msg, out);
+    }
+
+    /**
+     * Writes the given packet in the compressed format,
+     * deflating it if it exceeds the compression threshold.
+     *
+     * @param msg the packet ID and contents
+     * @param out the heap buffer to write to
+     */
+    static void compress(ByteBuf msg, ByteBuf out) {
+        int len = msg.readableBytes();
+        if (len <= TridentServer.cfg().compressionThresh()) {
+            wvint(out, 0);
+            out.writeBytes(msg);
+            return;
+        }
+
+        wvint(out, len);
+        try (ZlibPool.PooledDeflater pooled = ZlibPool.deflater(Deflater.BEST_SPEED)) {
+            Deflater deflater = pooled.deflater();
+            if (msg.hasArray()) {
+                deflater.setInput(msg.array(), msg.arrayOffset() + msg.readerIndex(), len);
+                msg.skipBytes(len);
+            } else {
+                deflater.setInput(arr(msg, len));
+            }
+            deflater.finish();
+
+            while (!deflater.finished()) {
+                out.ensureWritable(ZlibPool.BUFFER_SIZE);
+                int deflated = deflater.deflate(out.array(), out.arrayOffset() + out.writerIndex(), out.writableBytes());
+                out.writerIndex(out.writerIndex() + deflated);
+            }
+        }
+    }
+}
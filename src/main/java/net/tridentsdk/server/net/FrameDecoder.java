@@ -0,0 +1,69 @@
+/*
+ * Trident - A Multithreaded Server Alternative
+ * Copyright 2017 The TridentSDK Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.tridentsdk.server.net;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.ByteToMessageDecoder;
+import io.netty.handler.codec.CorruptedFrameException;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import java.util.List;
+
+/**
+ * Splits the incoming stream into packets using their
+ * VarInt length prefix.
+ *
+ * <p>Each frame is passed on as a retained slice of the
+ * cumulation buffer, so the packet contents are not
+ * copied.</p>
+ */
+@NotThreadSafe
+public class FrameDecoder extends ByteToMessageDecoder {
+    /**
+     * The maximum amount of bytes in the length prefix,
+     * which limits packets to 2097151 bytes
+     */
+    private static final int MAX_VINT_LEN = 3;
+
+    @Override
+    protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws Exception {
+        in.markReaderIndex();
+
+        int len = 0;
+        for (int i = 0; i < MAX_VINT_LEN; i++) {
+            if (!in.isReadable()) {
+                in.resetReaderIndex();
+                return;
+            }
+
+            byte read = in.readByte();
+            len |= (read & 0x7F) << 7 * i;
+            if ((read & 0x80) == 0) {
+                if (in.readableBytes() < len) {
+                    in.resetReaderIndex();
+                    return;
+                }
+
+                out.add(in.readRetainedSlice(len));
+                return;
+            }
+        }
+
+        throw new CorruptedFrameException("VarInt is too big");
+    }
+}
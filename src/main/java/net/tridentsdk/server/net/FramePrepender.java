@@ -0,0 +1,49 @@
+/*
+ * Trident - A Multithreaded Server Alternative
+ * Copyright 2017 The TridentSDK Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.tridentsdk.server.net;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.MessageToMessageEncoder;
+
+import javax.annotation.concurrent.Immutable;
+import java.util.List;
+
+import static net.tridentsdk.server.net.NetData.vintLen;
+import static net.tridentsdk.server.net.NetData.wvint;
+
+/**
+ * Writes the VarInt length prefix of outgoing packets.
+ *
+ * <p>The prefix is written to its own buffer which is sent
+ * along with the packet, so the packet contents are not
+ * copied.</p>
+ */
+@Immutable
+@ChannelHandler.Sharable
+public class FramePrepender extends MessageToMessageEncoder<ByteBuf> {
+    @Override
+    protected void encode(ChannelHandlerContext ctx, ByteBuf msg, List<Object> out) throws Exception {
+        int len = msg.readableBytes();
+        ByteBuf prefix = ctx.alloc().heapBuffer(vintLen(len));
+        wvint(prefix, len);
+
+        out.add(prefix);
+        out.add(msg.retain());
+    }
+}
@@ -18,43 +18,33 @@ package net.tridentsdk.server.net;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
-import io.netty.handler.codec.ByteToMessageDecoder;
+import io.netty.channel.SimpleChannelInboundHandler;
 import net.tridentsdk.logger.Logger;
-import net.tridentsdk.server.TridentServer;
 import net.tridentsdk.server.packet.Packet;
 import net.tridentsdk.server.packet.PacketIn;
 import net.tridentsdk.server.packet.PacketRegistry;
 import net.tridentsdk.server.player.TridentPlayer;
 
 import javax.annotation.concurrent.ThreadSafe;
-import java.math.BigInteger;
-import java.util.List;
-import java.util.zip.Inflater;
 
-import static net.tridentsdk.server.net.NetData.arr;
 import static net.tridentsdk.server.net.NetData.rvint;
 
 /**
- * This is the first decoder in the pipeline. Incoming
- * packets are read and decompressed through this decoder.
+ * This is the last decoder in the pipeline. Incoming
+ * packets which have been framed, and decrypted and
+ * decompressed if enabled, are identified by this decoder.
+ *
+ * <p>Play packets are handed to the client's packet queue
+ * so that slow handlers do not hold up the network thread,
+ * which is shared with other clients.</p>
  */
 @ThreadSafe
-public class InDecoder extends ByteToMessageDecoder {
+public class InDecoder extends SimpleChannelInboundHandler<ByteBuf> {
     /**
      * The logger used for debugging packets
      */
     private static final Logger LOGGER = Logger.get(InDecoder.class);
 
-    /**
-     * The instance of the inflater to use to decompress
-     * packets
-     */
-    private final Inflater inflater = new Inflater();
-    /**
-     * The last reader index used by the decoder by the
-     * decrypter on the last iteration
-     */
-    private ByteBuf lastDecrypted;
     /**
      * The net client which holds this channel handler
      */
@@ -71,117 +61,31 @@ public class InDecoder extends ByteToMessageDecoder {
     }
 
     @Override
-    protected void decode(ChannelHandlerContext ctx, ByteBuf buf, List<Object> list) throws Exception {
-        // Original index used if the buffer needs to wait
-        // for more input
-        int resetIdx = buf.readerIndex();
-
-        if (this.lastDecrypted == null) {
-            this.lastDecrypted = ctx.alloc().buffer();
-        }
-
-        // Decryption begins in buf at wherever the decoder
-        // left off when it last wrote to lastDecrypted
-        buf.readerIndex(this.lastDecrypted.writerIndex());
-
-        // Step 1: Decrypt if enabled
-        // If not, write the bytes to the lastDecrypted buf
-        int readableCrypted = buf.readableBytes();
-        if (readableCrypted > 0) {
-            NetCrypto crypto = this.client.getCryptoModule();
-            if (crypto != null) {
-                crypto.decrypt(buf, this.lastDecrypted, readableCrypted);
-            } else {
-                this.lastDecrypted.writeBytes(buf);
+    protected void channelRead0(ChannelHandlerContext ctx, ByteBuf buf) throws Exception {
+        int id = rvint(buf);
+
+        Class<? extends Packet> cls = PacketRegistry.byId(this.client.getState(), Packet.Bound.SERVER, id);
+        if (cls == null) {
+            String stringId = String.format("%2s", Integer.toHexString(id).toUpperCase()).replace(' ', '0');
+            TridentPlayer player = this.client.getPlayer();
+            if (player != null) {
+                player.sendMessage("Packet 0x" + stringId + " => SERVER is not supported at this time");
             }
-        }
-
-        // Step 2: Decompress if enabled
-        // If not, compressed, use raw buffer
-        // VarInt code pasted here in order to ensure that
-        // there is enough bytes in the buffer to read the
-        // full VarInt
-        int numRead = 0;
-        int fullLen = 0;
-        byte read;
-        do {
-            if (this.lastDecrypted.readableBytes() == 0) {
-                buf.readerIndex(resetIdx);
-                this.lastDecrypted.readerIndex(resetIdx);
-                return;
-            }
-
-            read = this.lastDecrypted.readByte();
-            int value = read & 0x7f;
-            fullLen |= value << 7 * numRead;
-
-            numRead++;
-            if (numRead > 5) {
-                throw new RuntimeException("VarInt is too big");
-            }
-        } while ((read & 0x80) != 0);
-
-        if (fullLen > this.lastDecrypted.readableBytes()) {
-            buf.readerIndex(resetIdx);
-            this.lastDecrypted.readerIndex(resetIdx);
+            LOGGER.warn("Client @ " + ctx.channel().remoteAddress() + " sent unsupported packet 0x" + stringId);
             return;
         }
 
-        ByteBuf decompressed;
-        if (this.client.doCompression()) { // compression enabled
-            int uncompressed = rvint(this.lastDecrypted);
-            if (uncompressed != 0) {
-                if (uncompressed < TridentServer.cfg().compressionThresh()) {
-                    this.client.disconnect("Incorrect compression header");
-                    return;
-                }
-
-                decompressed = ctx.alloc().buffer();
-                byte[] in = arr(this.lastDecrypted, fullLen - BigInteger.valueOf(uncompressed).toByteArray().length);
-
-                this.inflater.setInput(in);
-
-                byte[] buffer = new byte[NetClient.BUFFER_SIZE];
-                while (!this.inflater.finished()) {
-                    int bytes = this.inflater.inflate(buffer);
-                    decompressed.writeBytes(buffer, 0, bytes);
-                }
-                this.inflater.reset();
-            } else { // compression enabled, < compress thresh
-                decompressed = this.lastDecrypted.readBytes(fullLen - OutEncoder.VINT_LEN);
-            }
-        } else { // not compressed
-            decompressed = this.lastDecrypted.readBytes(fullLen);
-        }
+        PacketIn packet = PacketRegistry.make(cls);
 
-        try {
-            // Step 3: Decode packet
-            int id = rvint(decompressed);
+        LOGGER.debug("RECV: " + packet.getClass().getSimpleName());
 
-            Class<? extends Packet> cls = PacketRegistry.byId(this.client.getState(), Packet.Bound.SERVER, id);
-            if (cls == null) {
-                String stringId = String.format("%2s", Integer.toHexString(id).toUpperCase()).replace(' ', '0');
-                TridentPlayer player = this.client.getPlayer();
-                if (player != null) {
-                    player.sendMessage("Packet 0x" + stringId + " => SERVER is not supported at this time");
-                }
-                LOGGER.warn("Client @ " + ctx.channel().remoteAddress() + " sent unsupported packet 0x" + stringId);
-                return;
-            }
-
-            PacketIn packet = PacketRegistry.make(cls);
-
-            LOGGER.debug("RECV: " + packet.getClass().getSimpleName());
-            packet.read(decompressed, this.client);
-        } finally {
-            decompressed.release();
-
-            if (this.lastDecrypted.readableBytes() == 0) {
-                this.lastDecrypted.release();
-                this.lastDecrypted = null;
-            } else {
-                buf.readerIndex(this.lastDecrypted.readerIndex());
-            }
+        // Handshake, status and login packets change the
+        // pipeline and the connection state, so they are
+        // handled before the next packet is decoded
+        if (this.client.getState() == NetClient.NetState.PLAY) {
+            this.client.dispatch(packet, buf.retain());
+        } else {
+            packet.read(buf, this.client);
         }
     }
 
@@ -195,4 +99,4 @@ public class InDecoder extends ByteToMessageDecoder {
 
         throw new RuntimeException(cause);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,138 @@
+/*
+ * Trident - A Multithreaded Server Alternative
+ * Copyright 2017 The TridentSDK Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.tridentsdk.server.net;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.MessageToMessageDecoder;
+import net.tridentsdk.server.TridentServer;
+import net.tridentsdk.server.util.ZlibPool;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import static net.tridentsdk.server.net.NetData.rvint;
+
+/**
+ * Decompresses incoming packets once compression has been
+ * enabled for the client.
+ */
+@NotThreadSafe
+public class InflateDecoder extends MessageToMessageDecoder<ByteBuf> {
+    /**
+     * The largest uncompressed packet length accepted from
+     * a client
+     */
+    private static final int MAX_UNCOMPRESSED_LEN = 2097152;
+
+    /**
+     * The net client which holds this channel handler
+     */
+    private NetClient client;
+
+    @Override
+    public void handlerAdded(ChannelHandlerContext ctx) throws Exception {
+        this.client = NetClient.get(ctx);
+    }
+
+    @Override
+    protected void decode(ChannelHandlerContext ctx, ByteBuf msg, List<Object> out) throws Exception {
+        int uncompressed = rvint(msg);
+        if (uncompressed == 0) {
+            // Below the threshold, the rest is the packet
+            out.add(msg.retain());
+            return;
+        }
+
+        if (uncompressed < TridentServer.cfg().compressionThresh()) {
+            this.client.disconnect("Incorrect compression header");
+            return;
+        }
+
+        if (uncompressed > MAX_UNCOMPRESSED_LEN) {
+            this.client.disconnect("Packet too large");
+            return;
+        }
+
+        ByteBuf decompressed = ctx.alloc().heapBuffer(uncompressed);
+        try {
+            inflate(msg, decompressed, uncompressed);
+        } catch (DataFormatException e) {
+            decompressed.release();
+            throw e;
+        }
+        out.add(decompressed);
+    }
+
+    /**
+     * Inflates the readable bytes of the input buffer
+     * directly into the backing array of the output buffer.
+     *
+     * @param in the buffer holding the compressed data
+     * @param out the heap buffer to inflate into
+     * @param uncompressed the expected uncompressed length
+     * @throws DataFormatException if the data is not a
+     * valid zlib stream of the expected length
+     */
+    private static void inflate(ByteBuf in, ByteBuf out, int uncompressed) throws DataFormatException {
+        try (ZlibPool.PooledInflater pooled = ZlibPool.inflater()) {
+            Inflater inflater = pooled.inflater();
+            byte[] scratch = pooled.buffer();
+
+            int idx = in.readerIndex();
+            int remaining = in.readableBytes();
+            int outOffset = out.arrayOffset() + out.writerIndex();
+            int produced = 0;
+            while (produced < uncompressed) {
+                if (inflater.needsInput()) {
+                    if (remaining == 0) {
+                        break;
+                    }
+
+                    // Direct buffers are fed through the
+                    // scratch buffer instead
+                    if (in.hasArray()) {
+                        inflater.setInput(in.array(), in.arrayOffset() + idx, remaining);
+                        idx += remaining;
+                        remaining = 0;
+                    } else {
+                        int chunk = Math.min(remaining, scratch.length);
+                        in.getBytes(idx, scratch, 0, chunk);
+                        inflater.setInput(scratch, 0, chunk);
+                        idx += chunk;
+                        remaining -= chunk;
+                    }
+                }
+
+                int inflated = inflater.inflate(out.array(), outOffset + produced, uncompressed - produced);
+                if (inflated == 0 && (inflater.finished() || inflater.needsDictionary())) {
+                    break;
+                }
+                produced += inflated;
+            }
+
+            if (produced != uncompressed) {
+                throw new DataFormatException("Expected " + uncompressed + " bytes, inflated " + produced);
+            }
+
+            out.writerIndex(out.writerIndex() + produced);
+            in.skipBytes(in.readableBytes());
+        }
+    }
+}
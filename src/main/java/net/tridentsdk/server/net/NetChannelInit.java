@@ -19,6 +19,7 @@ package net.tridentsdk.server.net;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelPipeline;
 import io.netty.channel.socket.SocketChannel;
+import io.netty.handler.flush.FlushConsolidationHandler;
 
 import javax.annotation.concurrent.Immutable;
 
@@ -26,14 +27,72 @@ import javax.annotation.concurrent.Immutable;
  * Channel initializers register channel handlers to handle
  * incoming connections and packets, as well as handle
  * output.
+ *
+ * <p>The pipeline starts out with the flush consolidation,
+ * framing and packet handlers. The crypto handlers are
+ * added to the head of the pipeline once encryption is
+ * enabled, and the compression handlers are added between
+ * the framing and packet handlers once compression is
+ * enabled, see {@link NetClient}:</p>
+ *
+ * <pre>
+ * inbound:  decrypt -> frame -> inflate -> decode
+ * outbound: encrypt <- prepend <- deflate <- encode
+ * </pre>
  */
 @Immutable
 public class NetChannelInit extends ChannelInitializer<SocketChannel> {
+    /**
+     * The maximum amount of flushes consolidated into a
+     * single flush while reading from the channel
+     */
+    private static final int MAX_CONSOLIDATED_FLUSHES = 256;
+
+    /**
+     * The name of the handler consolidating flushes
+     */
+    static final String FLUSH = "flush";
+    /**
+     * The name of the handler decrypting incoming bytes
+     */
+    static final String DECRYPT = "decrypt";
+    /**
+     * The name of the handler encrypting outgoing bytes
+     */
+    static final String ENCRYPT = "encrypt";
+    /**
+     * The name of the handler splitting incoming packets
+     */
+    static final String FRAME = "frame";
+    /**
+     * The name of the handler writing packet lengths
+     */
+    static final String PREPEND = "prepend";
+    /**
+     * The name of the handler decompressing packets
+     */
+    static final String INFLATE = "inflate";
+    /**
+     * The name of the handler compressing packets
+     */
+    static final String DEFLATE = "deflate";
+    /**
+     * The name of the handler reading packets
+     */
+    static final String DECODE = "decode";
+    /**
+     * The name of the handler writing packets
+     */
+    static final String ENCODE = "encode";
+
     @Override
     protected void initChannel(SocketChannel socketChannel) throws Exception {
         ChannelPipeline pipe = socketChannel.pipeline();
 
-        pipe.addLast(new InDecoder());
-        pipe.addLast(new OutEncoder());
+        pipe.addLast(FLUSH, new FlushConsolidationHandler(MAX_CONSOLIDATED_FLUSHES, true));
+        pipe.addLast(FRAME, new FrameDecoder());
+        pipe.addLast(PREPEND, new FramePrepender());
+        pipe.addLast(DECODE, new InDecoder());
+        pipe.addLast(ENCODE, new OutEncoder());
     }
-}
\ No newline at end of file
+}
@@ -16,24 +16,32 @@
  */
 package net.tridentsdk.server.net;
 
+import io.netty.buffer.ByteBuf;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPipeline;
 import io.netty.util.concurrent.Future;
 import lombok.Getter;
 import lombok.Setter;
 import net.tridentsdk.server.TridentServer;
+import net.tridentsdk.server.concurrent.PoolSpec;
+import net.tridentsdk.server.concurrent.SerialExecutor;
+import net.tridentsdk.server.concurrent.ServerThreadPool;
+import net.tridentsdk.server.packet.PacketIn;
 import net.tridentsdk.server.packet.PacketOut;
 import net.tridentsdk.server.packet.login.LoginOutCompression;
 import net.tridentsdk.server.packet.login.LoginOutDisconnect;
 import net.tridentsdk.server.packet.play.PlayOutDisconnect;
 import net.tridentsdk.server.packet.play.PlayOutKeepAlive;
 import net.tridentsdk.server.player.TridentPlayer;
+import net.tridentsdk.server.util.JiraExceptionCatcher;
 import net.tridentsdk.ui.chat.ChatComponent;
 
 import javax.annotation.concurrent.ThreadSafe;
 import java.net.SocketAddress;
+import java.nio.channels.ClosedChannelException;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
@@ -69,12 +77,6 @@ public class NetClient {
         PLAY
     }
 
-    /**
-     * The buffer size used for compressed and
-     * decompression
-     * buffering
-     */
-    public static final int BUFFER_SIZE = 8192;
     /**
      * Time before the server kicks an inactive client, in
      * nanoseconds (30 seconds)
@@ -85,6 +87,20 @@ public class NetClient {
      * the client is not disconnected (10 seconds)
      */
     private static final long KEEP_ALIVE_INTERVAL_NANOS = 10_000_000_000L;
+    /**
+     * The maximum amount of play packets waiting to be
+     * handled before the client is kicked
+     */
+    private static final int MAX_QUEUED_PACKETS = 512;
+    /**
+     * The amount of queued play packets past which packets
+     * that can be dropped are skipped
+     */
+    private static final int DROP_QUEUED_PACKETS = 128;
+    /**
+     * The pool which handles play packets
+     */
+    private static final ServerThreadPool PACKET_POOL = ServerThreadPool.forSpec(PoolSpec.PACKETS);
     /**
      * The mapping of currently connected clients
      */
@@ -114,9 +130,10 @@ public class NetClient {
     @Getter
     private volatile NetCrypto cryptoModule;
     /**
-     * Whether or not the client performs compression
+     * The queue of play packets waiting to be handled, in
+     * the order they were received
      */
-    private volatile boolean doCompression;
+    private final SerialExecutor packetQueue = new SerialExecutor(PACKET_POOL, MAX_QUEUED_PACKETS);
     /**
      * The player object
      */
@@ -206,22 +223,83 @@ public class NetClient {
     }
 
     /**
-     * Determines whether or not this Minecraft client will
-     * perform compression on messages.
+     * Adds the crypto handlers to the head of the channel
+     * pipeline, once the crypto module has been given the
+     * shared secret.
      *
-     * @return {@code true} if so
+     * <p>This must be called from the channel's event loop
+     * while handling the encryption response, so that every
+     * following read and write is encrypted.</p>
      */
-    public boolean doCompression() {
-        return this.doCompression;
+    public void enableCrypto() {
+        NetCrypto crypto = this.cryptoModule;
+        ChannelPipeline pipe = this.channel.pipeline();
+        pipe.addFirst(NetChannelInit.DECRYPT, new CryptoDecoder(crypto));
+        pipe.addFirst(NetChannelInit.ENCRYPT, new CryptoEncoder(crypto));
     }
 
     /**
      * Enables compression when the client is ready.
+     *
+     * <p>The compression handlers are added on the event
+     * loop right after the compression packet has passed
+     * through the pipeline, so that the packet itself is not
+     * compressed but every packet sent after it is.</p>
      */
     public void enableCompression() {
         if (TridentServer.cfg().compressionThresh() != -1) {
-            this.sendPacket(new LoginOutCompression())
-                    .addListener(future -> this.doCompression = true);
+            this.sendPacket(new LoginOutCompression());
+
+            Runnable install = () -> {
+                ChannelPipeline pipe = this.channel.pipeline();
+                pipe.addAfter(NetChannelInit.FRAME, NetChannelInit.INFLATE, new InflateDecoder());
+                pipe.addAfter(NetChannelInit.PREPEND, NetChannelInit.DEFLATE, new DeflateEncoder());
+            };
+            if (this.channel.eventLoop().inEventLoop()) {
+                install.run();
+            } else {
+                this.channel.eventLoop().execute(install);
+            }
+        }
+    }
+
+    /**
+     * Hands the given play packet to be handled off of the
+     * network thread, in the order that packets are
+     * received.
+     *
+     * <p>Packets which can be dropped are skipped while the
+     * queue is backed up, and the client is kicked if the
+     * queue is full.</p>
+     *
+     * @param packet the packet to handle
+     * @param buf the packet contents, which are released
+     * once the packet has been handled
+     */
+    public void dispatch(PacketIn packet, ByteBuf buf) {
+        if (packet.isDroppable() && this.packetQueue.size() >= DROP_QUEUED_PACKETS) {
+            buf.release();
+            return;
+        }
+
+        boolean queued = this.packetQueue.offer(() -> {
+            try {
+                if (this.channel.isActive()) {
+                    packet.read(buf, this);
+                }
+            } catch (Exception e) {
+                TridentServer.getInstance().getLogger().error("Error handling " +
+                        packet.getClass().getSimpleName() + " from " + this.channel.remoteAddress());
+                JiraExceptionCatcher.serverException(e);
+                this.disconnect("Server error: " + e.getMessage());
+            } finally {
+                buf.release();
+            }
+        });
+
+        if (!queued) {
+            buf.release();
+            this.disconnect("Sent too many packets");
         }
     }
 
@@ -235,6 +313,71 @@ public class NetClient {
         return this.channel.writeAndFlush(packet);
     }
 
+    /**
+     * Writes the given packet to the client's channel
+     * without flushing it.
+     *
+     * <p>The packet is not sent until {@link #flush()} is
+     * called, which allows a burst of packets to be sent
+     * with a single flush.</p>
+     *
+     * @param packet the packet to write
+     * @return the response future
+     */
+    public ChannelFuture writePacket(PacketOut packet) {
+        return this.channel.write(packet);
+    }
+
+    /**
+     * Writes the given shared packet to the client's
+     * channel without flushing it.
+     *
+     * <p>The encoded form of the packet is reused, so it
+     * skips the encoding and compression stages of the
+     * pipeline and is only framed and encrypted for this
+     * client.</p>
+     *
+     * @param packet the packet to write
+     * @return the response future
+     */
+    public ChannelFuture writePacket(SharedPacket packet) {
+        ChannelPipeline pipe = this.channel.pipeline();
+        ChannelHandlerContext deflate = pipe.context(NetChannelInit.DEFLATE);
+        if (deflate != null) {
+            return deflate.write(packet.compressed().retainedDuplicate());
+        }
+
+        ChannelHandlerContext encode = pipe.context(NetChannelInit.ENCODE);
+        if (encode != null) {
+            return encode.write(packet.payload().retainedDuplicate());
+        }
+
+        // The pipeline has been torn down
+        return this.channel.newFailedFuture(new ClosedChannelException());
+    }
+
+    /**
+     * Sends the given shared packet to the client's
+     * channel.
+     *
+     * @param packet the packet to send
+     * @return the response future
+     * @see #writePacket(SharedPacket)
+     */
+    public ChannelFuture sendPacket(SharedPacket packet) {
+        ChannelFuture future = this.writePacket(packet);
+        this.channel.flush();
+        return future;
+    }
+
+    /**
+     * Sends all of the packets written to the client's
+     * channel since the last flush.
+     */
+    public void flush() {
+        this.channel.flush();
+    }
+
     /**
      * Gets the name of the player.
      *
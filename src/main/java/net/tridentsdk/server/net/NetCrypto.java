@@ -23,11 +23,10 @@ import javax.annotation.concurrent.ThreadSafe;
 import javax.crypto.*;
 import javax.crypto.spec.IvParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
 import java.security.*;
 import java.util.Arrays;
 
-import static net.tridentsdk.server.net.NetData.arr;
-
 /**
  * This class is a handler for packet encryption and
  * decryption, and holds the keys and security accessors to
@@ -166,35 +165,91 @@ public class NetCrypto {
      * Encrypts the given byte buffer with the information
      * provided by this crypto module.
      *
+     * <p>When both buffers are heap buffers, the cipher
+     * writes straight from the backing array of the source
+     * into the backing array of the destination. Otherwise,
+     * the bytes are copied into the destination and then
+     * encrypted in place.</p>
+     *
      * @param buf the buffer
      * @param dest the destination
      */
     public void encrypt(ByteBuf buf, ByteBuf dest) {
         Cipher cipher = this.encrypt;
-        if (cipher == null) {
-            dest.writeBytes(buf);
+        int len = buf.readableBytes();
+        if (cipher != null && buf.hasArray() && dest.hasArray()) {
+            dest.ensureWritable(len);
+            try {
+                cipher.update(buf.array(), buf.arrayOffset() + buf.readerIndex(), len,
+                        dest.array(), dest.arrayOffset() + dest.writerIndex());
+            } catch (ShortBufferException e) {
+                throw new RuntimeException(e);
+            }
+
+            buf.skipBytes(len);
+            dest.writerIndex(dest.writerIndex() + len);
             return;
         }
 
-        byte[] bytes = arr(buf);
-        dest.writeBytes(cipher.update(bytes));
+        int idx = dest.writerIndex();
+        dest.writeBytes(buf);
+        if (cipher != null) {
+            update(cipher, dest, idx, len);
+        }
     }
 
     /**
      * Decrypts the given byte buffer with the information
      * provided by this crypto module.
      *
+     * <p>The bytes are copied into the destination and then
+     * decrypted in place.</p>
+     *
      * @param buf the buffer
      * @param dest the destination
+     * @param len the amount of bytes to decrypt
      */
     public void decrypt(ByteBuf buf, ByteBuf dest, int len) {
+        int idx = dest.writerIndex();
+        dest.writeBytes(buf, len);
+
         Cipher cipher = this.decrypt;
-        if (cipher == null) {
-            dest.writeBytes(buf, len);
-            return;
+        if (cipher != null) {
+            update(cipher, dest, idx, len);
         }
+    }
 
-        byte[] bytes = arr(buf, len);
-        dest.writeBytes(cipher.update(bytes));
+    /**
+     * Runs the given stream cipher over a region of the
+     * given buffer, replacing its contents with the
+     * output. AES/CFB8 produces exactly one byte of output
+     * for each byte of input, so no extra space is needed.
+     *
+     * <p>Heap buffers are passed to the cipher through
+     * their backing array, which does not allocate. Direct
+     * buffers go through their NIO view instead.</p>
+     *
+     * @param cipher the cipher to use
+     * @param buf the buffer to transform
+     * @param idx the index at which the region starts
+     * @param len the length of the region
+     */
+    private static void update(Cipher cipher, ByteBuf buf, int idx, int len) {
+        try {
+            if (buf.hasArray()) {
+                byte[] array = buf.array();
+                int offset = buf.arrayOffset() + idx;
+                cipher.update(array, offset, len, array, offset);
+            } else if (buf.nioBufferCount() == 1) {
+                ByteBuffer nio = buf.nioBuffer(idx, len);
+                cipher.update(nio, nio.duplicate());
+            } else {
+                byte[] bytes = new byte[len];
+                buf.getBytes(idx, bytes);
+                buf.setBytes(idx, cipher.update(bytes));
+            }
+        } catch (ShortBufferException e) {
+            throw new RuntimeException(e);
+        }
     }
-}
\ No newline at end of file
+}
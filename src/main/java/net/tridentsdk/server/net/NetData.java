@@ -140,6 +140,23 @@ public final class NetData {
         buf.writeByte(i & 0x7F);
     }
 
+    /**
+     * Obtains the amount of bytes taken up by the given
+     * value when it is written as a VarInt.
+     *
+     * @param i the VarInt value
+     * @return the VarInt length
+     */
+    public static int vintLen(int i) {
+        int len = 1;
+        while ((i & 0xFFFFFF80) != 0L) {
+            len++;
+            i >>>= 7;
+        }
+
+        return len;
+    }
+
     /**
      * Converts the given angle into protocol format.
      *
@@ -20,18 +20,19 @@ import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.MessageToByteEncoder;
 import net.tridentsdk.logger.Logger;
-import net.tridentsdk.server.TridentServer;
 import net.tridentsdk.server.packet.PacketOut;
 
 import javax.annotation.concurrent.ThreadSafe;
-import java.math.BigInteger;
-import java.util.zip.Deflater;
 
-import static net.tridentsdk.server.net.NetData.arr;
 import static net.tridentsdk.server.net.NetData.wvint;
 
 /**
  * The encoder which writes packet messages to the stream.
+ *
+ * <p>This is the first encoder in the pipeline. The packet
+ * ID and contents are written to a heap buffer, which is
+ * then compressed, framed and encrypted by the following
+ * encoders when enabled.</p>
  */
 @ThreadSafe
 public class OutEncoder extends MessageToByteEncoder<PacketOut> {
@@ -39,21 +40,17 @@ public class OutEncoder extends MessageToByteEncoder<PacketOut> {
      * The logger used for debugging packets
      */
     private static final Logger LOGGER = Logger.get(OutEncoder.class);
-    /**
-     * Length of an uncompressed packet using the
-     * compressed transport.
-     */
-    public static final int VINT_LEN = BigInteger.ZERO.toByteArray().length;
-
-    /**
-     * The deflater used for compressing packets
-     */
-    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
     /**
      * The net client which holds this channel handler
      */
     private NetClient client;
 
+    public OutEncoder() {
+        // Heap output lets the deflater read the backing
+        // array directly
+        super(false);
+    }
+
     @Override
     public void handlerAdded(ChannelHandlerContext ctx) throws Exception {
         this.client = NetClient.get(ctx);
@@ -61,99 +58,11 @@ public class OutEncoder extends MessageToByteEncoder<PacketOut> {
 
     @Override
     protected void encode(ChannelHandlerContext ctx, PacketOut msg, ByteBuf out) throws Exception {
-        // Step 1: Encode packet
-        ByteBuf payload = ctx.alloc().buffer();
-        try {
-            wvint(payload, msg.id());
-            msg.write(payload);
-
-            // Step 2: Compress if enabled
-            // If not, write headers to new buffer
-            ByteBuf buf = ctx.alloc().buffer();
-            try {
-                if (this.client.doCompression()) {
-                    int len = payload.readableBytes();
-                    if (len > TridentServer.cfg().compressionThresh()) {
-                        this.writeDeflated(payload, buf, len);
-                    } else {
-                        this.writeCompressed(payload, buf);
-                    }
-                } else {
-                    this.writeUncompressed(payload, buf);
-                }
-
-                // Step 3: Encrypt if enabled
-                // If not, write raw bytes
-                NetCrypto crypto = this.client.getCryptoModule();
-                if (crypto != null) {
-                    crypto.encrypt(buf, out);
-                } else {
-                    out.writeBytes(buf);
-                }
-            } finally {
-                buf.release();
-            }
-        } finally {
-            payload.release();
-        }
+        wvint(out, msg.id());
+        msg.write(out);
         LOGGER.debug("SEND: " + msg.getClass().getSimpleName());
     }
 
-    /**
-     * Writes a compressed packet that is deflated using
-     * zlib.
-     *
-     * @param payload the payload to write
-     * @param out the output buffer
-     * @param len the length
-     */
-    private void writeDeflated(ByteBuf payload, ByteBuf out, int len) {
-        byte[] input = arr(payload, len);
-
-        this.deflater.setInput(input);
-        this.deflater.finish();
-
-        byte[] buffer = new byte[NetClient.BUFFER_SIZE];
-        ByteBuf result = payload.alloc().buffer();
-        while (!this.deflater.finished()) {
-            int deflated = this.deflater.deflate(buffer);
-            result.writeBytes(buffer, 0, deflated);
-        }
-
-        this.deflater.reset();
-
-        int resultLen = result.readableBytes();
-        wvint(out, resultLen + BigInteger.valueOf(len).toByteArray().length);
-        wvint(out, len);
-        out.writeBytes(result);
-
-        result.release();
-    }
-
-    /**
-     * Writes an uncompressed packet using the compressed
-     * protocol format.
-     *
-     * @param payload the payload to write
-     * @param out the output buffer
-     */
-    private void writeCompressed(ByteBuf payload, ByteBuf out) {
-        wvint(out, VINT_LEN + payload.readableBytes());
-        wvint(out, 0);
-        out.writeBytes(payload);
-    }
-
-    /**
-     * Writes an uncompressed packet.
-     *
-     * @param payload the payload to write
-     * @param out the output buffer
-     */
-    private void writeUncompressed(ByteBuf payload, ByteBuf out) {
-        wvint(out, payload.readableBytes());
-        out.writeBytes(payload);
-    }
-
     @Override
     public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
         if (this.client != null) {
@@ -164,4 +73,4 @@ public class OutEncoder extends MessageToByteEncoder<PacketOut> {
 
         throw new RuntimeException(cause);
     }
-}
\ No newline at end of file
+}
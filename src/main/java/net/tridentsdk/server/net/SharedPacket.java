@@ -0,0 +1,135 @@
+/*
+ * Trident - A Multithreaded Server Alternative
+ * Copyright 2017 The TridentSDK Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.tridentsdk.server.net;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import net.tridentsdk.server.packet.PacketOut;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import static net.tridentsdk.server.net.NetData.wvint;
+
+/**
+ * A packet which is sent to many clients, but only encoded
+ * once.
+ *
+ * <p>The packet is written to a buffer the first time it
+ * is sent, and compressed the first time it is sent to a
+ * client which uses compression. Each client is given a
+ * retained duplicate of the encoded buffer, which is
+ * written past the encoding and compression stages of the
+ * pipeline, so only the framing and the per-client
+ * encryption are done for each recipient.</p>
+ *
+ * <p>The encoded buffers are held until
+ * {@link #release()} is called once the packet has been
+ * handed to all of its recipients.</p>
+ */
+@NotThreadSafe
+public final class SharedPacket {
+    /**
+     * The packet being sent
+     */
+    private final PacketOut packet;
+    /**
+     * The packet ID and contents, or {@code null} if not
+     * yet encoded
+     */
+    private ByteBuf payload;
+    /**
+     * The payload in the compressed format, or
+     * {@code null} if not yet compressed
+     */
+    private ByteBuf compressed;
+
+    /**
+     * Creates a new shared packet.
+     *
+     * @param packet the packet to share
+     */
+    public SharedPacket(PacketOut packet) {
+        this.packet = packet;
+    }
+
+    /**
+     * Obtains the packet that is being shared.
+     *
+     * @return the packet
+     */
+    public PacketOut getPacket() {
+        return this.packet;
+    }
+
+    /**
+     * Obtains the amount of bytes of the encoded packet,
+     * before compression.
+     *
+     * @return the packet size
+     */
+    public int size() {
+        return this.payload().readableBytes();
+    }
+
+    /**
+     * Obtains the encoded packet ID and contents.
+     *
+     * @return the encoded packet
+     */
+    ByteBuf payload() {
+        if (this.payload == null) {
+            ByteBuf buf = ByteBufAllocator.DEFAULT.heapBuffer();
+            wvint(buf, this.packet.id());
+            this.packet.write(buf);
+            this.payload = buf;
+        }
+
+        return this.payload;
+    }
+
+    /**
+     * Obtains the encoded packet in the compressed format.
+     *
+     * @return the compressed packet
+     */
+    ByteBuf compressed() {
+        if (this.compressed == null) {
+            ByteBuf buf = ByteBufAllocator.DEFAULT.heapBuffer();
+            DeflateEncoder.compress(this.payload().duplicate(), buf);
+            this.compressed = buf;
+        }
+
+        return this.compressed;
+    }
+
+    /**
+     * Releases the encoded buffers held by this packet. The
+     * packet is still delivered to the clients it was
+     * written to.
+     */
+    public void release() {
+        if (this.payload != null) {
+            this.payload.release();
+            this.payload = null;
+        }
+
+        if (this.compressed != null) {
+            this.compressed.release();
+            this.compressed = null;
+        }
+    }
+}
@@ -45,4 +45,16 @@ public abstract class PacketIn extends Packet {
      * @param client the client
      */
     public abstract void read(ByteBuf buf, NetClient client);
+
+    /**
+     * Determines whether this packet may be skipped when
+     * the client sends packets faster than the server can
+     * handle them.
+     *
+     * @return {@code true} if the packet only carries state
+     * which the client sends again shortly after
+     */
+    public boolean isDroppable() {
+        return false;
+    }
 }
\ No newline at end of file
@@ -88,6 +88,7 @@ public final class PacketRegistry {
         put(PlayOutBossBar.class, NetClient.NetState.PLAY, Packet.Bound.CLIENT, 0x0C);
         put(PlayOutDifficulty.class, NetClient.NetState.PLAY, Packet.Bound.CLIENT, 0x0D);
         put(PlayOutChat.class, NetClient.NetState.PLAY, Packet.Bound.CLIENT, 0x0F);
+        put(PlayOutMultiBlockChange.class, NetClient.NetState.PLAY, Packet.Bound.CLIENT, 0x10);
         put(PlayOutWindowItems.class, NetClient.NetState.PLAY, Packet.Bound.CLIENT, 0x14);
         put(PlayOutSlot.class, NetClient.NetState.PLAY, Packet.Bound.CLIENT, 0x16);
         put(PlayOutPluginMsg.class, NetClient.NetState.PLAY, Packet.Bound.CLIENT, 0x18);
@@ -64,6 +64,7 @@ public final class LoginInEncryptionResponse extends PacketIn {
             client.disconnect("Crypto error");
             return;
         }
+        client.enableCrypto();
 
         MessageDigest md;
         try {
@@ -41,5 +41,4 @@ public class PlayInAnimation extends PacketIn {
         PlayOutAnimation packet = new PlayOutAnimation(player, animation == 0 ? PlayOutAnimation.AnimationType.SWING_MAIN_ARM : PlayOutAnimation.AnimationType.SWING_OFFHAND);
         RecipientSelector.whoCanSee(player, true, packet);
     }
-
 }
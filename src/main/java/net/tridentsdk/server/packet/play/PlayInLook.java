@@ -44,4 +44,9 @@ public final class PlayInLook extends PacketIn {
         player.setPosition(player.getPosition().setYaw(yaw).setPitch(pitch), false);
         player.setOnGround(onGround);
     }
+
+    @Override
+    public boolean isDroppable() {
+        return true;
+    }
 }
@@ -37,4 +37,9 @@ public final class PlayInPlayer extends PacketIn {
         boolean onGround = buf.readBoolean();
         client.getPlayer().setOnGround(onGround);
     }
+
+    @Override
+    public boolean isDroppable() {
+        return true;
+    }
 }
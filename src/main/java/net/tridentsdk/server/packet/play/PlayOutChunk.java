@@ -28,19 +28,37 @@ import javax.annotation.concurrent.Immutable;
 @Immutable
 public final class PlayOutChunk extends PacketOut {
     private final TridentChunk chunk;
+    private final int sectionMask;
 
     public PlayOutChunk(TridentChunk chunk) {
+        this(chunk, -1);
+    }
+
+    /**
+     * Creates a chunk packet which resends only the given
+     * sections of a chunk the client already has.
+     *
+     * @param chunk the chunk
+     * @param sectionMask the bit mask of the sections to
+     * send, or {@code -1} to send the entire chunk
+     */
+    public PlayOutChunk(TridentChunk chunk, int sectionMask) {
         super(PlayOutChunk.class);
         this.chunk = chunk;
+        this.sectionMask = sectionMask;
     }
 
     @Override
     public void write(ByteBuf buf) {
-        boolean doGUContinuous = true;
+        boolean doGUContinuous = this.sectionMask == -1;
 
         buf.writeInt(this.chunk.getX());
         buf.writeInt(this.chunk.getZ());
         buf.writeBoolean(doGUContinuous);
-        this.chunk.write(buf, doGUContinuous);
+        if (doGUContinuous) {
+            this.chunk.write(buf, true);
+        } else {
+            this.chunk.writeSections(buf, this.sectionMask);
+        }
     }
 }
@@ -0,0 +1,76 @@
+/*
+ * Trident - A Multithreaded Server Alternative
+ * Copyright 2017 The TridentSDK Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.tridentsdk.server.packet.play;
+
+import io.netty.buffer.ByteBuf;
+import net.tridentsdk.server.packet.PacketOut;
+
+import javax.annotation.concurrent.Immutable;
+
+import static net.tridentsdk.server.net.NetData.wvint;
+
+/**
+ * Sent by the server to indicate to the client that
+ * several blocks in a chunk have changed at once.
+ */
+@Immutable
+public final class PlayOutMultiBlockChange extends PacketOut {
+    private final int chunkX;
+    private final int chunkZ;
+    private final int[] records;
+
+    /**
+     * Creates a new multi block change.
+     *
+     * @param chunkX the chunk X
+     * @param chunkZ the chunk Z
+     * @param records the changed blocks, created using
+     * {@link #record(int, int, int, short)}
+     */
+    public PlayOutMultiBlockChange(int chunkX, int chunkZ, int[] records) {
+        super(PlayOutMultiBlockChange.class);
+        this.chunkX = chunkX;
+        this.chunkZ = chunkZ;
+        this.records = records;
+    }
+
+    /**
+     * Packs a changed block into a single record.
+     *
+     * @param x the chunk relative X
+     * @param y the Y
+     * @param z the chunk relative Z
+     * @param state the new block state
+     * @return the record
+     */
+    public static int record(int x, int y, int z, short state) {
+        return (x << 4 | z) << 24 | y << 16 | state & 0xFFFF;
+    }
+
+    @Override
+    public void write(ByteBuf buf) {
+        buf.writeInt(this.chunkX);
+        buf.writeInt(this.chunkZ);
+
+        wvint(buf, this.records.length);
+        for (int record : this.records) {
+            buf.writeByte(record >>> 24);
+            buf.writeByte(record >>> 16 & 0xFF);
+            wvint(buf, record & 0xFFFF);
+        }
+    }
+}
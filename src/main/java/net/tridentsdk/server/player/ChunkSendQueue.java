@@ -0,0 +1,108 @@
+/*
+ * Trident - A Multithreaded Server Alternative
+ * Copyright 2017 The TridentSDK Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.tridentsdk.server.player;
+
+import net.tridentsdk.server.world.TridentChunk;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The chunks which have finished loading and are waiting to
+ * be sent to a player, handed out closest to the player
+ * first.
+ *
+ * <p>The chunks are only sorted again once the player has
+ * moved into another chunk or new chunks were added.</p>
+ */
+@ThreadSafe
+public class ChunkSendQueue {
+    /**
+     * The chunks waiting to be sent, sorted farthest first
+     * so that the closest chunk is removed from the end
+     */
+    @GuardedBy("this")
+    private final List<TridentChunk> chunks = new ArrayList<>();
+    /**
+     * Whether the chunks need to be sorted before the next
+     * poll
+     */
+    @GuardedBy("this")
+    private boolean unsorted;
+    /**
+     * The chunk X which the chunks were last sorted around
+     */
+    @GuardedBy("this")
+    private int centerX;
+    /**
+     * The chunk Z which the chunks were last sorted around
+     */
+    @GuardedBy("this")
+    private int centerZ;
+
+    /**
+     * Adds a chunk which is ready to be sent.
+     *
+     * @param chunk the chunk
+     */
+    public synchronized void add(TridentChunk chunk) {
+        this.chunks.add(chunk);
+        this.unsorted = true;
+    }
+
+    /**
+     * Removes the waiting chunk closest to the given chunk
+     * coordinates.
+     *
+     * @param centerX the chunk X of the player
+     * @param centerZ the chunk Z of the player
+     * @return the closest chunk, or {@code null} if no
+     * chunks are waiting
+     */
+    public synchronized TridentChunk poll(int centerX, int centerZ) {
+        if (this.chunks.isEmpty()) {
+            return null;
+        }
+
+        if (this.unsorted || centerX != this.centerX || centerZ != this.centerZ) {
+            this.chunks.sort(Comparator.comparingInt((TridentChunk c) -> {
+                int dx = c.getX() - centerX;
+                int dz = c.getZ() - centerZ;
+                return dx * dx + dz * dz;
+            }).reversed());
+            this.unsorted = false;
+            this.centerX = centerX;
+            this.centerZ = centerZ;
+        }
+
+        return this.chunks.remove(this.chunks.size() - 1);
+    }
+
+    /**
+     * Removes all waiting chunks.
+     *
+     * @return the chunks which were waiting
+     */
+    public synchronized List<TridentChunk> clear() {
+        List<TridentChunk> chunks = new ArrayList<>(this.chunks);
+        this.chunks.clear();
+        return chunks;
+    }
+}
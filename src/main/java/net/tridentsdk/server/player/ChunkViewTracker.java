@@ -0,0 +1,354 @@
+/*
+ * Trident - A Multithreaded Server Alternative
+ * Copyright 2017 The TridentSDK Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.tridentsdk.server.player;
+
+import lombok.Getter;
+import net.tridentsdk.server.util.Long2ReferenceOpenHashMap;
+import net.tridentsdk.server.world.TridentChunk;
+import net.tridentsdk.server.world.TridentWorld;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tracks the chunks which are in view of a player, and
+ * works out which chunks enter and leave the view when the
+ * player moves.
+ *
+ * <p>The view is the square of chunks no further than the
+ * view distance from the chunk the player is in. When the
+ * player moves within the same world and keeps the same
+ * view distance, only the strips of chunks on the edges of
+ * the old and new view are looked at rather than the whole
+ * square.</p>
+ */
+@ThreadSafe
+public class ChunkViewTracker {
+    /**
+     * The chunks which have been sent to the player
+     */
+    @GuardedBy("this")
+    private final Long2ReferenceOpenHashMap<TridentChunk> held = new Long2ReferenceOpenHashMap<>();
+    /**
+     * The chunks which are being loaded or are waiting to
+     * be sent to the player
+     */
+    @GuardedBy("this")
+    private final Long2ReferenceOpenHashMap<Boolean> pending = new Long2ReferenceOpenHashMap<>();
+    /**
+     * The world which the player is viewing
+     */
+    @GuardedBy("this")
+    private TridentWorld world;
+    /**
+     * The chunk X at the center of the view
+     */
+    @GuardedBy("this")
+    private int centerX;
+    /**
+     * The chunk Z at the center of the view
+     */
+    @GuardedBy("this")
+    private int centerZ;
+    /**
+     * The view distance, or -1 if nothing is in view
+     */
+    @GuardedBy("this")
+    private int radius = -1;
+
+    /**
+     * Obtains the key of the chunk at the given
+     * coordinates.
+     *
+     * @param x the chunk X
+     * @param z the chunk Z
+     * @return the chunk key
+     */
+    public static long key(int x, int z) {
+        return (long) x << 32 | z & 0xFFFFFFFFL;
+    }
+
+    /**
+     * Obtains the chunk X of the given chunk key.
+     *
+     * @param key the chunk key
+     * @return the chunk X
+     */
+    public static int keyX(long key) {
+        return (int) (key >> 32);
+    }
+
+    /**
+     * Obtains the chunk Z of the given chunk key.
+     *
+     * @param key the chunk key
+     * @return the chunk Z
+     */
+    public static int keyZ(long key) {
+        return (int) key;
+    }
+
+    /**
+     * Moves the view to be centered on the given chunk.
+     *
+     * <p>Once this returns, the chunks that entered the
+     * view are pending and the chunks that left it are no
+     * longer held.</p>
+     *
+     * @param world the world the player is in
+     * @param centerX the chunk X of the player
+     * @param centerZ the chunk Z of the player
+     * @param radius the view distance
+     * @return the chunks which entered and left the view
+     */
+    public synchronized Diff move(TridentWorld world, int centerX, int centerZ, int radius) {
+        int oldX = this.centerX;
+        int oldZ = this.centerZ;
+        boolean moved = world == this.world && radius == this.radius;
+        if (moved && centerX == oldX && centerZ == oldZ) {
+            return new Diff(new long[0], new ArrayList<>(0));
+        }
+
+        this.world = world;
+        this.centerX = centerX;
+        this.centerZ = centerZ;
+        this.radius = radius;
+
+        List<TridentChunk> leaving = new ArrayList<>();
+        Long2ReferenceOpenHashMap.LongArrayList entering = new Long2ReferenceOpenHashMap.LongArrayList(16);
+        if (moved) {
+            // Only look at the strips that differ between
+            // the old and the new view
+            this.difference(oldX, oldZ, centerX, centerZ, radius, key -> {
+                TridentChunk chunk = this.held.remove(key);
+                if (chunk != null) {
+                    leaving.add(chunk);
+                } else {
+                    this.pending.remove(key);
+                }
+            });
+            this.difference(centerX, centerZ, oldX, oldZ, radius, entering::add);
+        } else {
+            for (TridentChunk chunk : this.held.values()) {
+                if (chunk.getWorld() != world || !this.inView(chunk.getX(), chunk.getZ())) {
+                    leaving.add(chunk);
+                }
+            }
+            for (TridentChunk chunk : leaving) {
+                this.held.remove(key(chunk.getX(), chunk.getZ()));
+            }
+            this.pending.clear();
+
+            for (int x = centerX - radius; x <= centerX + radius; x++) {
+                for (int z = centerZ - radius; z <= centerZ + radius; z++) {
+                    entering.add(key(x, z));
+                }
+            }
+        }
+
+        return new Diff(this.closestFirst(entering), leaving);
+    }
+
+    /**
+     * Marks the given chunk as sent, if it is still in view
+     * and was not sent already, and adds the given player
+     * as a holder of the chunk.
+     *
+     * <p>The holder is added while the view is locked, so
+     * a move can never take the chunk out of the view
+     * before the player holds it.</p>
+     *
+     * @param chunk the chunk which finished loading
+     * @param player the player viewing the chunk
+     * @return {@code true} if the chunk should be sent
+     */
+    public synchronized boolean hold(TridentChunk chunk, TridentPlayer player) {
+        long key = key(chunk.getX(), chunk.getZ());
+        if (this.pending.remove(key) == null) {
+            return false;
+        }
+
+        if (chunk.getWorld() != this.world || !this.inView(chunk.getX(), chunk.getZ())) {
+            return false;
+        }
+
+        if (this.held.put(key, chunk) != null) {
+            return false;
+        }
+
+        chunk.addHolder(player);
+        return true;
+    }
+
+    /**
+     * Stops waiting for the chunk with the given key, such
+     * as when it failed to load.
+     *
+     * @param key the chunk key
+     */
+    public synchronized void cancel(long key) {
+        this.pending.remove(key);
+    }
+
+    /**
+     * Removes every chunk from the view.
+     *
+     * @return the chunks which were held
+     */
+    public synchronized List<TridentChunk> clear() {
+        List<TridentChunk> chunks = new ArrayList<>(this.held.values());
+        this.held.clear();
+        this.pending.clear();
+        this.world = null;
+        this.radius = -1;
+
+        return chunks;
+    }
+
+    /**
+     * Checks whether the chunk at the given coordinates is
+     * in the current view.
+     *
+     * @param x the chunk X
+     * @param z the chunk Z
+     * @return {@code true} if the chunk is in view
+     */
+    @GuardedBy("this")
+    private boolean inView(int x, int z) {
+        return Math.abs(x - this.centerX) <= this.radius && Math.abs(z - this.centerZ) <= this.radius;
+    }
+
+    /**
+     * Passes the keys of the chunks in the first view that
+     * are not in the second view to the given consumer.
+     *
+     * @param ax the center X of the first view
+     * @param az the center Z of the first view
+     * @param bx the center X of the second view
+     * @param bz the center Z of the second view
+     * @param radius the view distance of both views
+     * @param consumer the consumer of the chunk keys
+     */
+    @GuardedBy("this")
+    private void difference(int ax, int az, int bx, int bz, int radius, KeyConsumer consumer) {
+        int minZ = az - radius;
+        int maxZ = az + radius;
+        for (int x = ax - radius; x <= ax + radius; x++) {
+            if (Math.abs(x - bx) > radius) {
+                for (int z = minZ; z <= maxZ; z++) {
+                    consumer.accept(key(x, z));
+                }
+                continue;
+            }
+
+            // The column overlaps, so only the ends which
+            // are out of the second view differ
+            int overlapFrom = Math.max(minZ, bz - radius);
+            int overlapTo = Math.min(maxZ, bz + radius);
+            for (int z = minZ; z < Math.min(overlapFrom, maxZ + 1); z++) {
+                consumer.accept(key(x, z));
+            }
+            for (int z = Math.max(overlapTo + 1, minZ); z <= maxZ; z++) {
+                consumer.accept(key(x, z));
+            }
+        }
+    }
+
+    /**
+     * Marks the given chunks which are not held or pending
+     * as pending, and orders them by their distance to the
+     * center of the view.
+     *
+     * @param keys the keys of the chunks in view
+     * @return the keys of the chunks to load, closest first
+     */
+    @GuardedBy("this")
+    private long[] closestFirst(Long2ReferenceOpenHashMap.LongArrayList keys) {
+        // Keys are bucketed by ring instead of sorted
+        int[] ringStart = new int[this.radius + 2];
+        long[] found = new long[keys.size()];
+        int count = 0;
+        for (int i = 0; i < keys.size(); i++) {
+            long key = keys.getLong(i);
+            if (this.held.containsKey(key) || this.pending.containsKey(key)) {
+                continue;
+            }
+
+            this.pending.put(key, Boolean.TRUE);
+            found[count++] = key;
+            ringStart[this.ring(key) + 1]++;
+        }
+
+        for (int i = 1; i < ringStart.length; i++) {
+            ringStart[i] += ringStart[i - 1];
+        }
+
+        long[] sorted = new long[count];
+        for (int i = 0; i < count; i++) {
+            long key = found[i];
+            sorted[ringStart[this.ring(key)]++] = key;
+        }
+
+        return sorted;
+    }
+
+    /**
+     * Obtains the ring of the view that the given chunk is
+     * in, 0 being the center.
+     *
+     * @param key the chunk key
+     * @return the ring of the chunk
+     */
+    @GuardedBy("this")
+    private int ring(long key) {
+        return Math.max(Math.abs(keyX(key) - this.centerX), Math.abs(keyZ(key) - this.centerZ));
+    }
+
+    /**
+     * Consumer of chunk keys, which avoids boxing them.
+     */
+    @FunctionalInterface
+    private interface KeyConsumer {
+        void accept(long key);
+    }
+
+    /**
+     * The chunks which entered and left the view of a
+     * player after a move.
+     */
+    @Immutable
+    @Getter
+    public static final class Diff {
+        /**
+         * The keys of the chunks which entered the view and
+         * need to be loaded, closest first
+         */
+        private final long[] entering;
+        /**
+         * The chunks which left the view
+         */
+        private final List<TridentChunk> leaving;
+
+        private Diff(long[] entering, List<TridentChunk> leaving) {
+            this.entering = entering;
+            this.leaving = leaving;
+        }
+    }
+}
@@ -22,6 +22,8 @@ import net.tridentsdk.base.Position;
 import net.tridentsdk.entity.Entity;
 import net.tridentsdk.entity.living.Player;
 import net.tridentsdk.server.entity.TridentEntity;
+import net.tridentsdk.server.net.NetClient;
+import net.tridentsdk.server.net.SharedPacket;
 import net.tridentsdk.server.packet.PacketOut;
 import net.tridentsdk.server.world.TridentChunk;
 import net.tridentsdk.server.world.TridentWorld;
@@ -54,22 +56,23 @@ public final class RecipientSelector {
         }
 
         Set<TridentPlayer> targets = chunk.getHolders();
-        if (exclude == null || !(exclude instanceof Player)) {
-            for (TridentPlayer p : targets) {
-                for (PacketOut out : packetOut) {
-                    p.net().sendPacket(out);
-                }
-            }
-        } else {
-            for (TridentPlayer p : targets) {
-                if (p.equals(exclude)) {
-                    continue;
+        SharedPacket[] shared = share(packetOut);
+        try {
+            if (exclude == null || !(exclude instanceof Player)) {
+                for (TridentPlayer p : targets) {
+                    send(p, shared);
                 }
+            } else {
+                for (TridentPlayer p : targets) {
+                    if (p.equals(exclude)) {
+                        continue;
+                    }
 
-                for (PacketOut out : packetOut) {
-                    p.net().sendPacket(out);
+                    send(p, shared);
                 }
             }
+        } finally {
+            release(shared);
         }
     }
 
@@ -98,10 +101,69 @@ public final class RecipientSelector {
      * players
      */
     public static void inWorld(TridentWorld world, PacketOut... packetOut) {
-        for (TridentPlayer player : world.getOccupants()) {
-            for (PacketOut out : packetOut) {
-                player.net().sendPacket(out);
+        sendTo(world.getOccupants(), packetOut);
+    }
+
+    /**
+     * Sends the given packets to each of the given players.
+     *
+     * <p>Each packet is only encoded once for all of the
+     * players.</p>
+     *
+     * @param targets the players to send the packets to
+     * @param packetOut the packets to send
+     */
+    public static void sendTo(Iterable<? extends Player> targets, PacketOut... packetOut) {
+        SharedPacket[] shared = share(packetOut);
+        try {
+            for (Player player : targets) {
+                send((TridentPlayer) player, shared);
             }
+        } finally {
+            release(shared);
+        }
+    }
+
+    /**
+     * Wraps the given packets so that they are only encoded
+     * once.
+     *
+     * @param packetOut the packets to wrap
+     * @return the shared packets
+     */
+    private static SharedPacket[] share(PacketOut... packetOut) {
+        SharedPacket[] shared = new SharedPacket[packetOut.length];
+        for (int i = 0; i < packetOut.length; i++) {
+            shared[i] = new SharedPacket(packetOut[i]);
+        }
+
+        return shared;
+    }
+
+    /**
+     * Releases the encoded form of the given packets once
+     * they have been written to every recipient.
+     *
+     * @param shared the packets to release
+     */
+    private static void release(SharedPacket... shared) {
+        for (SharedPacket packet : shared) {
+            packet.release();
+        }
+    }
+
+    /**
+     * Writes the given packets to the player and flushes
+     * them all at once.
+     *
+     * @param player the player to send the packets to
+     * @param shared the packets to send
+     */
+    private static void send(TridentPlayer player, SharedPacket... shared) {
+        NetClient net = player.net();
+        for (SharedPacket out : shared) {
+            net.writePacket(out);
         }
+        net.flush();
     }
-}
\ No newline at end of file
+}
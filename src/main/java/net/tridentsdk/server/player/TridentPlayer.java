@@ -35,6 +35,7 @@ import net.tridentsdk.server.entity.meta.EntityMetaType;
 import net.tridentsdk.server.inventory.TridentInventory;
 import net.tridentsdk.server.inventory.TridentPlayerInventory;
 import net.tridentsdk.server.net.NetClient;
+import net.tridentsdk.server.net.SharedPacket;
 import net.tridentsdk.server.packet.PacketOut;
 import net.tridentsdk.server.packet.login.Login;
 import net.tridentsdk.server.packet.play.*;
@@ -50,12 +51,12 @@ import net.tridentsdk.ui.bossbar.BossBar;
 import net.tridentsdk.ui.chat.*;
 import net.tridentsdk.ui.tablist.TabList;
 import net.tridentsdk.ui.title.Title;
-import net.tridentsdk.world.IntPair;
 import net.tridentsdk.world.opt.GameMode;
 
 import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.ThreadSafe;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.CopyOnWriteArrayList;
@@ -177,16 +178,28 @@ public class TridentPlayer extends TridentEntity implements Player {
     // CHUNKS ----------------------------------------------
     // -----------------------------------------------------
 
+    /**
+     * The smallest render distance used for a player
+     */
+    private static final int MIN_RENDER_DISTANCE = 2;
+    /**
+     * The largest render distance used for a player
+     */
+    private static final int MAX_RENDER_DISTANCE = 32;
+
     /**
      * The player's render distance
      */
     @Getter
-    @Setter
     private volatile int renderDistance = 7;
     /**
-     * The chunks that are held by this player
+     * The chunks that are in view of this player
+     */
+    private final ChunkViewTracker viewTracker = new ChunkViewTracker();
+    /**
+     * The loaded chunks waiting to be sent to this player
      */
-    private final Map<IntPair, TridentChunk> heldChunks = new ConcurrentHashMap<>();
+    private final ChunkSendQueue chunkQueue = new ChunkSendQueue();
 
     // -----------------------------------------------------
     // PLAYER META -----------------------------------------
@@ -229,9 +242,13 @@ public class TridentPlayer extends TridentEntity implements Player {
     /**
      * The player's current tablist
      */
-    @GuardedBy("heldChunks") // random field used to lock
+    @GuardedBy("tabListLock")
     @Getter
     private TridentTabList tabList;
+    /**
+     * The lock guarding the tablist
+     */
+    private final Object tabListLock = new Object();
     /**
      * The boss bars that are being displayed to this
      * player.
@@ -326,19 +343,20 @@ public class TridentPlayer extends TridentEntity implements Player {
         }
 
         TridentWorld world = this.getWorld();
-        this.client.sendPacket(new PlayOutJoinGame(this, world));
-        this.client.sendPacket(PlayOutPluginMsg.BRAND);
+        this.client.writePacket(new PlayOutJoinGame(this, world));
+        this.client.writePacket(PlayOutPluginMsg.BRAND);
         TridentPluginChannel.autoAdd(this);
-        this.client.sendPacket(new PlayOutDifficulty(world));
-        this.client.sendPacket(new PlayOutSpawnPos());
-        this.client.sendPacket(new PlayOutPlayerAbilities(this));
+        this.client.writePacket(new PlayOutDifficulty(world));
+        this.client.writePacket(new PlayOutSpawnPos());
+        this.client.writePacket(new PlayOutPlayerAbilities(this));
         this.inventory.update();
-        this.client.sendPacket(new PlayOutPosLook(this));
+        this.client.writePacket(new PlayOutPosLook(this));
 
-        this.client.sendPacket(new PlayOutTime(world.getAge().longValue(), world.getTime()));
+        this.client.writePacket(new PlayOutTime(world.getAge().longValue(), world.getTime()));
         if (world.getWeather().isRaining()) {
-            this.client.sendPacket(new PlayOutGameState(2, 0));
+            this.client.writePacket(new PlayOutGameState(2, 0));
         }
+        this.client.flush();
 
         this.setTabList(TridentGlobalTabList.getInstance());
 
@@ -380,6 +398,7 @@ public class TridentPlayer extends TridentEntity implements Player {
     @Override
     public void doTick() {
         this.client.tick();
+        this.sendQueuedChunks();
     }
 
     @Override
@@ -402,10 +421,10 @@ public class TridentPlayer extends TridentEntity implements Player {
         this.setTabList(null);
         TridentGlobalTabList.getInstance().unsubscribe(this);
         TridentInventory.clean();
-        for (TridentChunk chunk : this.heldChunks.values()) {
-            chunk.getHolders().remove(this);
+        for (TridentChunk chunk : this.viewTracker.clear()) {
+            chunk.removeHolder(this);
         }
-        this.heldChunks.clear();
+        this.dropQueuedChunks();
 
         ChatComponent chat = ChatComponent.create()
                 .setColor(ChatColor.YELLOW)
@@ -444,7 +463,7 @@ public class TridentPlayer extends TridentEntity implements Player {
 
     @Override
     public void setTabList(TabList tabList) {
-        synchronized (this.heldChunks) {
+        synchronized (this.tabListLock) {
             TridentTabList old = this.tabList;
             if (old != null) {
                 old.unsubscribe(this);
@@ -489,29 +508,31 @@ public class TridentPlayer extends TridentEntity implements Player {
         for (BossBar bar : this.bossBars) {
             AbstractBossBar bossBar = (AbstractBossBar) bar;
             if (force) {
-                this.net().sendPacket(new PlayOutBossBar.Add(bossBar));
+                this.net().writePacket(new PlayOutBossBar.Add(bossBar));
                 continue;
             }
 
-            this.net().sendPacket(new PlayOutBossBar.UpdateHealth(bossBar));
-            this.net().sendPacket(new PlayOutBossBar.UpdateTitle(bossBar));
-            this.net().sendPacket(new PlayOutBossBar.UpdateStyle(bossBar));
-            this.net().sendPacket(new PlayOutBossBar.UpdateFlags(bossBar));
+            this.net().writePacket(new PlayOutBossBar.UpdateHealth(bossBar));
+            this.net().writePacket(new PlayOutBossBar.UpdateTitle(bossBar));
+            this.net().writePacket(new PlayOutBossBar.UpdateStyle(bossBar));
+            this.net().writePacket(new PlayOutBossBar.UpdateFlags(bossBar));
         }
+        this.net().flush();
     }
 
     @Override
     public void sendTitle(Title title) {
         synchronized (this.bossBars) { // this.bossBars simply used as lock object for titles
             if (!title.isDefaultFadeTimes()) {
-                this.net().sendPacket(new PlayOutTitle.SetTiming(title));
+                this.net().writePacket(new PlayOutTitle.SetTiming(title));
             }
 
             ChatComponent mainTitle = title.getHeader();
             ChatComponent subtitle = title.getSubtitle();
 
-            this.net().sendPacket(new PlayOutTitle.SetSubtitle(subtitle));
-            this.net().sendPacket(new PlayOutTitle.SetTitle(mainTitle));
+            this.net().writePacket(new PlayOutTitle.SetSubtitle(subtitle));
+            this.net().writePacket(new PlayOutTitle.SetTitle(mainTitle));
+            this.net().flush();
         }
     }
 
@@ -640,6 +661,23 @@ public class TridentPlayer extends TridentEntity implements Player {
         }
     }
 
+    /**
+     * Sets the render distance of this player, which is
+     * clamped to between 2 and 32 chunks, and updates the
+     * chunks in view if it has changed.
+     *
+     * @param renderDistance the render distance
+     */
+    public void setRenderDistance(int renderDistance) {
+        int clamped = Math.max(MIN_RENDER_DISTANCE, Math.min(MAX_RENDER_DISTANCE, renderDistance));
+        if (clamped != this.renderDistance) {
+            this.renderDistance = clamped;
+            if (this.finishedLogin.get()) {
+                this.updateChunks(this.getPosition());
+            }
+        }
+    }
+
     /**
      * Send an update to the client with the chunks
      * If direction is null, chunks around the player will be sent
@@ -649,39 +687,169 @@ public class TridentPlayer extends TridentEntity implements Player {
         int centerX = position.getChunkX();
         int centerZ = position.getChunkZ();
 
-        int radius = this.renderDistance;
-
         this.pool.execute(() -> {
-            for (int x = centerX - radius; x < centerX + radius; x++) {
-                for (int z = centerZ - radius; z < centerZ + radius; z++) {
-                    IntPair pair = IntPair.make(x, z);
-                    if (!this.heldChunks.containsKey(pair)) {
-                        TridentChunk chunk = world.getChunkAt(x, z);
-                        this.heldChunks.put(pair, chunk);
-                        chunk.getHolders().add(this);
-                        chunk.getEntities().filter(e -> !e.equals(this)).forEach(e -> this.net().sendPacket(((TridentEntity) e).getSpawnPacket()));
-                        this.net().sendPacket(new PlayOutChunk(chunk));
-                    }
+            ChunkViewTracker.Diff diff = this.viewTracker.move(world, centerX, centerZ, this.renderDistance);
+
+            // Chunks are queued as soon as each one is ready,
+            // and sent on the next player tick
+            long[] entering = diff.getEntering();
+            int[] xs = new int[entering.length];
+            int[] zs = new int[entering.length];
+            for (int i = 0; i < entering.length; i++) {
+                xs[i] = ChunkViewTracker.keyX(entering[i]);
+                zs[i] = ChunkViewTracker.keyZ(entering[i]);
+            }
+
+            // Chunks in the same region file are read together
+            List<CompletableFuture<TridentChunk>> futures = world.getChunksAtAsync(xs, zs);
+            for (int i = 0; i < entering.length; i++) {
+                this.queueChunk(futures.get(i), xs[i], zs[i]);
+            }
+
+            List<TridentChunk> leaving = diff.getLeaving();
+            if (leaving.isEmpty()) {
+                return;
+            }
+
+            for (TridentChunk chunk : leaving) {
+                chunk.removeHolder(this);
+                this.net().writePacket(new PlayOutUnloadChunk(chunk.getX(), chunk.getZ()));
+
+                if (!chunk.getEntitySet().isEmpty() || !chunk.getOccupants().isEmpty()) {
+                    this.net().writePacket(new PlayOutDestroyEntities(chunk.getEntities().collect(Collectors.toList())));
                 }
             }
+            this.net().flush();
         });
+    }
 
-        this.pool.execute(() -> {
-            for (TridentChunk chunk : this.heldChunks.values()) {
-                if (Math.abs(chunk.getX() - centerX) > radius || Math.abs(chunk.getZ() - centerZ) > radius) {
-                    this.heldChunks.remove(IntPair.make(chunk.getX(), chunk.getZ()));
-                    chunk.getHolders().remove(this);
-                    this.net().sendPacket(new PlayOutUnloadChunk(chunk.getX(), chunk.getZ()));
-
-                    if (!chunk.getEntitySet().isEmpty() || !chunk.getOccupants().isEmpty()) {
-                        this.net().sendPacket(new PlayOutDestroyEntities(chunk.getEntities().collect(Collectors.toList())));
-                    }
-                    chunk.checkValidForGc();
-                }
+    /**
+     * Adds the chunk of the given future to the chunk queue
+     * once it is ready.
+     *
+     * <p>The chunk is retained while it is waiting, so that
+     * it is not evicted before it is sent.</p>
+     *
+     * @param future the future of the chunk
+     * @param x the chunk X
+     * @param z the chunk Z
+     */
+    private void queueChunk(CompletableFuture<TridentChunk> future, int x, int z) {
+        future.whenComplete((chunk, t) -> {
+            if (t != null) {
+                this.viewTracker.cancel(ChunkViewTracker.key(x, z));
+                TridentServer.getInstance().getLogger().error("Failed to load chunk " +
+                        x + ", " + z + " for " + this.name + ": " + t.getMessage());
+                return;
+            }
+
+            chunk.retain();
+            this.chunkQueue.add(chunk);
+
+            // The player may have left while the chunk was
+            // loading, after the chunk queue was cleared
+            if (TridentPlayer.players.get(this.uuid) != this) {
+                this.dropQueuedChunks();
             }
         });
     }
 
+    /**
+     * Removes every chunk from the chunk queue, releasing
+     * the chunks.
+     */
+    private void dropQueuedChunks() {
+        for (TridentChunk chunk : this.chunkQueue.clear()) {
+            chunk.release();
+        }
+    }
+
+    /**
+     * Sends the queued chunks closest to this player, up to
+     * the amount of chunks and bytes allowed each tick.
+     */
+    private void sendQueuedChunks() {
+        Position position = this.getPosition();
+        int centerX = position.getChunkX();
+        int centerZ = position.getChunkZ();
+
+        int maxChunks = TridentServer.cfg().chunksPerTick();
+        long maxBytes = TridentServer.cfg().chunkBytesPerTick();
+        int sentChunks = 0;
+        long sentBytes = 0;
+
+        TridentChunk chunk;
+        while (sentChunks < maxChunks && sentBytes < maxBytes &&
+                (chunk = this.chunkQueue.poll(centerX, centerZ)) != null) {
+            int size = this.sendChunk(chunk);
+            if (size > 0) {
+                sentChunks++;
+                sentBytes += size;
+            }
+        }
+
+        if (sentChunks > 0) {
+            this.net().flush();
+        }
+    }
+
+    /**
+     * Writes a chunk which has finished loading to this
+     * player, unless the player has moved away from it or
+     * left while it was loading.
+     *
+     * @param chunk the chunk to send
+     * @return the size of the chunk packet, or 0 if the
+     * chunk was not sent
+     */
+    private int sendChunk(TridentChunk chunk) {
+        try {
+            return this.trySendChunk(chunk);
+        } finally {
+            // The chunk stays referenced if it is now held,
+            // otherwise it may be unloaded
+            chunk.release();
+        }
+    }
+
+    /**
+     * Writes a chunk taken from the chunk queue to this
+     * player if it is still in view.
+     *
+     * @param chunk the chunk to send
+     * @return the size of the chunk packet, or 0 if the
+     * chunk was not sent
+     */
+    private int trySendChunk(TridentChunk chunk) {
+        // The chunk may have been evicted before it was
+        // retained, in which case it is requested again
+        if (!chunk.canUse()) {
+            TridentWorld world = chunk.getWorld();
+            this.queueChunk(world.getChunkAtAsync(chunk.getX(), chunk.getZ()), chunk.getX(), chunk.getZ());
+            return 0;
+        }
+
+        if (!this.viewTracker.hold(chunk, this)) {
+            return 0;
+        }
+
+        // The player may have left after the chunk was held
+        if (TridentPlayer.players.get(this.uuid) != this) {
+            chunk.removeHolder(this);
+            return 0;
+        }
+
+        chunk.getEntities().filter(e -> !e.equals(this)).forEach(e -> this.net().writePacket(((TridentEntity) e).getSpawnPacket()));
+
+        SharedPacket packet = new SharedPacket(new PlayOutChunk(chunk));
+        try {
+            this.net().writePacket(packet);
+            return packet.size();
+        } finally {
+            packet.release();
+        }
+    }
+
     @Override
     public void chat(String msg) {
         ChatComponent chat = ChatComponent.create()
@@ -26,6 +26,7 @@ import net.tridentsdk.server.concurrent.PoolSpec;
 import net.tridentsdk.server.concurrent.ServerThreadPool;
 import net.tridentsdk.server.net.NetData;
 import net.tridentsdk.server.packet.play.PlayOutPluginMsg;
+import net.tridentsdk.server.player.RecipientSelector;
 import net.tridentsdk.server.player.TridentPlayer;
 
 import javax.annotation.concurrent.ThreadSafe;
@@ -147,9 +148,7 @@ public class TridentPluginAllChannel implements PluginChannel {
         }
 
         PlayOutPluginMsg msg = new PlayOutPluginMsg(this.name, message);
-        for (Player player : TridentPlayer.getPlayers().values()) {
-            ((TridentPlayer) player).net().sendPacket(msg);
-        }
+        RecipientSelector.sendTo(TridentPlayer.getPlayers().values(), msg);
 
         ServerThreadPool.forSpec(PoolSpec.PLUGINS).execute(() -> {
             for (SimpleChannelListener listener : TridentPluginChannel.getListeners().values()) {
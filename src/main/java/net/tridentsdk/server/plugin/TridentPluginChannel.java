@@ -27,6 +27,7 @@ import net.tridentsdk.server.concurrent.PoolSpec;
 import net.tridentsdk.server.concurrent.ServerThreadPool;
 import net.tridentsdk.server.net.NetData;
 import net.tridentsdk.server.packet.play.PlayOutPluginMsg;
+import net.tridentsdk.server.player.RecipientSelector;
 import net.tridentsdk.server.player.TridentPlayer;
 
 import javax.annotation.concurrent.ThreadSafe;
@@ -316,9 +317,7 @@ public class TridentPluginChannel implements PluginChannel {
         }
 
         PlayOutPluginMsg msg = new PlayOutPluginMsg(this.name, message);
-        for (Player player : this.recipients.values()) {
-            ((TridentPlayer) player).net().sendPacket(msg);
-        }
+        RecipientSelector.sendTo(this.recipients.values(), msg);
 
         ServerThreadPool.forSpec(PoolSpec.PLUGINS).execute(() -> {
             for (SimpleChannelListener listener : listeners.values()) {
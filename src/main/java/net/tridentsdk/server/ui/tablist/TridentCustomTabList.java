@@ -17,7 +17,7 @@
 package net.tridentsdk.server.ui.tablist;
 
 import net.tridentsdk.server.packet.play.PlayOutTabListItem;
-import net.tridentsdk.server.player.TridentPlayer;
+import net.tridentsdk.server.player.RecipientSelector;
 import net.tridentsdk.ui.chat.ChatComponent;
 
 import javax.annotation.concurrent.ThreadSafe;
@@ -48,7 +48,7 @@ public class TridentCustomTabList extends TridentTabList {
 
                     PlayOutTabListItem.UpdateDisplayName packet = PlayOutTabListItem.updatePlayerPacket();
                     packet.update(this.elements.get(slot).getUuid(), value);
-                    this.getUserList().forEach(player -> ((TridentPlayer) player).net().sendPacket(packet));
+                    RecipientSelector.sendTo(this.getUserList(), packet);
                 } else {
                     List<TabListElement> addedElements = new ArrayList<>();
 
@@ -73,7 +73,7 @@ public class TridentCustomTabList extends TridentTabList {
                     if (!addedElements.isEmpty()) {
                         PlayOutTabListItem.AddPlayer packet = PlayOutTabListItem.addPlayerPacket();
                         addedElements.forEach(e -> packet.addPlayer(e.getUuid(), e.getName(), e.getGameMode(), e.getPing(), e.getDisplayName()));
-                        this.getUserList().forEach(player -> ((TridentPlayer) player).net().sendPacket(packet));
+                        RecipientSelector.sendTo(this.getUserList(), packet);
                     }
                 }
             } else {
@@ -95,14 +95,14 @@ public class TridentCustomTabList extends TridentTabList {
 
                         PlayOutTabListItem.RemovePlayer packet = PlayOutTabListItem.removePlayerPacket();
                         removedElements.forEach(e -> packet.removePlayer(e.getUuid()));
-                        this.getUserList().forEach(player -> ((TridentPlayer) player).net().sendPacket(packet));
+                        RecipientSelector.sendTo(this.getUserList(), packet);
                     } else {
                         this.elements.get(slot).setDisplayName(ChatComponent.empty());
                         this.elements.get(slot).setBlank(true);
 
                         PlayOutTabListItem.UpdateDisplayName packet = PlayOutTabListItem.updatePlayerPacket();
                         packet.update(this.elements.get(slot).getUuid(), ChatComponent.empty());
-                        this.getUserList().forEach(player -> ((TridentPlayer) player).net().sendPacket(packet));
+                        RecipientSelector.sendTo(this.getUserList(), packet);
                     }
                 }
             }
@@ -20,6 +20,7 @@ import lombok.Getter;
 import net.tridentsdk.doc.Policy;
 import net.tridentsdk.entity.living.Player;
 import net.tridentsdk.server.packet.play.PlayOutTabListItem;
+import net.tridentsdk.server.player.RecipientSelector;
 import net.tridentsdk.server.player.TridentPlayer;
 import net.tridentsdk.ui.chat.ChatComponent;
 
@@ -78,10 +79,7 @@ public class TridentGlobalTabList extends TridentTabList {
                     });
         }
 
-        for (TridentPlayer p : this.users) {
-            p.net().sendPacket(removeAll);
-            p.net().sendPacket(addAll);
-        }
+        RecipientSelector.sendTo(this.users, removeAll, addAll);
     }
 
     @Override
@@ -21,6 +21,7 @@ import net.tridentsdk.entity.living.Player;
 import net.tridentsdk.server.net.NetClient;
 import net.tridentsdk.server.packet.play.PlayOutPlayerListHeaderAndFooter;
 import net.tridentsdk.server.packet.play.PlayOutTabListItem;
+import net.tridentsdk.server.player.RecipientSelector;
 import net.tridentsdk.server.player.TridentPlayer;
 import net.tridentsdk.ui.chat.ChatComponent;
 import net.tridentsdk.ui.tablist.TabList;
@@ -96,9 +97,7 @@ public abstract class TridentTabList implements TabList {
 
         PlayOutTabListItem.AddPlayer addMe = PlayOutTabListItem.addPlayerPacket();
         addMe.addPlayer(element);
-        for (TridentPlayer tp : this.users) {
-            tp.net().sendPacket(addMe);
-        }
+        RecipientSelector.sendTo(this.users, addMe);
     }
 
     public void unsubscribe(Player player) {
@@ -124,9 +123,7 @@ public abstract class TridentTabList implements TabList {
 
         PlayOutTabListItem.RemovePlayer removeMe = PlayOutTabListItem.removePlayerPacket();
         removeMe.removePlayer(tridentPlayer.getUuid());
-        for (TridentPlayer tp : this.users) {
-            tp.net().sendPacket(removeMe);
-        }
+        RecipientSelector.sendTo(this.users, removeMe);
     }
 
     /**
@@ -139,9 +136,7 @@ public abstract class TridentTabList implements TabList {
         PlayOutTabListItem.UpdateDisplayName updateDisplayName = PlayOutTabListItem.updatePlayerPacket();
         updateDisplayName.update(player.getUuid(), player.getTabListName());
 
-        for (TridentPlayer tp : this.users) {
-            tp.net().sendPacket(updateDisplayName);
-        }
+        RecipientSelector.sendTo(this.users, updateDisplayName);
     }
 
     /**
@@ -156,10 +151,7 @@ public abstract class TridentTabList implements TabList {
         PlayOutTabListItem.AddPlayer addMe = PlayOutTabListItem.addPlayerPacket();
         addMe.addPlayer(new TabListElement(player));
 
-        for (TridentPlayer tp : this.users) {
-            tp.net().sendPacket(removeMe);
-            tp.net().sendPacket(addMe);
-        }
+        RecipientSelector.sendTo(this.users, removeMe, addMe);
     }
 
     /**
@@ -168,6 +160,6 @@ public abstract class TridentTabList implements TabList {
      */
     private void updateHeaderFooter() {
         PlayOutPlayerListHeaderAndFooter packet = new PlayOutPlayerListHeaderAndFooter(this.header, this.footer);
-        this.users.forEach(player -> player.net().sendPacket(packet));
+        RecipientSelector.sendTo(this.users, packet);
     }
 }
\ No newline at end of file
@@ -0,0 +1,257 @@
+/*
+ * Trident - A Multithreaded Server Alternative
+ * Copyright 2017 The TridentSDK Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.tridentsdk.server.util;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * A bounded pool of zlib compressors shared by the region
+ * files and the network codec.
+ *
+ * <p>Each {@link Deflater} and {@link Inflater} holds
+ * native zlib state that is only released by calling
+ * {@code end()}, so creating one per chunk or per packet
+ * is expensive. Pooled instances come with a scratch
+ * buffer and are returned by closing them, which resets
+ * them for the next borrower. Instances returned while the
+ * pool is full are ended.</p>
+ *
+ * <p>The pool keeps track of how often a borrow was served
+ * by a pooled instance and of the native memory held by
+ * live instances, which can be obtained through
+ * {@link #stats()}.</p>
+ */
+@ThreadSafe
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class ZlibPool {
+    /**
+     * The size of the scratch buffer held by each pooled
+     * instance
+     */
+    public static final int BUFFER_SIZE = 8192;
+    /**
+     * The maximum amount of idle instances of each kind
+     */
+    private static final int MAX_IDLE = Math.max(8, Runtime.getRuntime().availableProcessors() * 2);
+    /**
+     * Estimated native memory held by a deflater using the
+     * default 32K window and memory level 8
+     */
+    private static final long DEFLATER_NATIVE_BYTES = (1 << 17) + (1 << 17) + 6 * 1024;
+    /**
+     * Estimated native memory held by an inflater using the
+     * default 32K window
+     */
+    private static final long INFLATER_NATIVE_BYTES = (1 << 15) + 7 * 1024;
+
+    private static final BlockingQueue<PooledDeflater> DEFLATERS = new ArrayBlockingQueue<>(MAX_IDLE);
+    private static final BlockingQueue<PooledInflater> INFLATERS = new ArrayBlockingQueue<>(MAX_IDLE);
+
+    private static final LongAdder BORROWS = new LongAdder();
+    private static final LongAdder HITS = new LongAdder();
+    private static final LongAdder LIVE_DEFLATERS = new LongAdder();
+    private static final LongAdder LIVE_INFLATERS = new LongAdder();
+
+    /**
+     * Borrows a deflater using the given compression level.
+     *
+     * @param level the compression level
+     * @return the pooled deflater, which must be closed
+     * once it is no longer used
+     */
+    public static PooledDeflater deflater(int level) {
+        BORROWS.increment();
+        PooledDeflater deflater = DEFLATERS.poll();
+        if (deflater == null) {
+            LIVE_DEFLATERS.increment();
+            deflater = new PooledDeflater();
+        } else {
+            HITS.increment();
+        }
+
+        deflater.returned = false;
+        deflater.deflater.setLevel(level);
+        return deflater;
+    }
+
+    /**
+     * Borrows an inflater.
+     *
+     * @return the pooled inflater, which must be closed
+     * once it is no longer used
+     */
+    public static PooledInflater inflater() {
+        BORROWS.increment();
+        PooledInflater inflater = INFLATERS.poll();
+        if (inflater == null) {
+            LIVE_INFLATERS.increment();
+            inflater = new PooledInflater();
+        } else {
+            HITS.increment();
+        }
+
+        inflater.returned = false;
+        return inflater;
+    }
+
+    /**
+     * Obtains the fraction of borrows that were served by
+     * an idle pooled instance.
+     *
+     * @return the hit rate, between 0 and 1
+     */
+    public static double hitRate() {
+        long borrows = BORROWS.sum();
+        return borrows == 0 ? 0 : (double) HITS.sum() / borrows;
+    }
+
+    /**
+     * Obtains an estimate of the native memory held by the
+     * deflaters and inflaters that have not been ended.
+     *
+     * @return the estimated native memory, in bytes
+     */
+    public static long nativeBytes() {
+        return LIVE_DEFLATERS.sum() * DEFLATER_NATIVE_BYTES +
+                LIVE_INFLATERS.sum() * INFLATER_NATIVE_BYTES;
+    }
+
+    /**
+     * Obtains a summary of the pool usage.
+     *
+     * @return the pool statistics
+     */
+    public static String stats() {
+        return String.format("zlib pool: %d borrows, %.1f%% hit rate, %d deflaters, %d inflaters, ~%d KB native",
+                BORROWS.sum(), hitRate() * 100, LIVE_DEFLATERS.sum(), LIVE_INFLATERS.sum(), nativeBytes() / 1024);
+    }
+
+    /**
+     * A deflater borrowed from the pool.
+     */
+    @NotThreadSafe
+    public static final class PooledDeflater implements AutoCloseable {
+        private final Deflater deflater = new Deflater();
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+        /**
+         * Whether this deflater has been returned since it
+         * was last borrowed
+         */
+        private boolean returned;
+
+        private PooledDeflater() {
+        }
+
+        /**
+         * Obtains the deflater, which is reset when it is
+         * returned to the pool.
+         *
+         * @return the deflater
+         */
+        public Deflater deflater() {
+            return this.deflater;
+        }
+
+        /**
+         * Obtains a scratch buffer which can be used to
+         * hold deflated output.
+         *
+         * @return the scratch buffer
+         */
+        public byte[] buffer() {
+            return this.buffer;
+        }
+
+        @Override
+        public void close() {
+            // Returning twice would hand the same deflater
+            // to two borrowers
+            if (this.returned) {
+                return;
+            }
+            this.returned = true;
+
+            this.deflater.reset();
+            if (!DEFLATERS.offer(this)) {
+                this.deflater.end();
+                LIVE_DEFLATERS.decrement();
+            }
+        }
+    }
+
+    /**
+     * An inflater borrowed from the pool.
+     */
+    @NotThreadSafe
+    public static final class PooledInflater implements AutoCloseable {
+        private final Inflater inflater = new Inflater();
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+        /**
+         * Whether this inflater has been returned since it
+         * was last borrowed
+         */
+        private boolean returned;
+
+        private PooledInflater() {
+        }
+
+        /**
+         * Obtains the inflater, which is reset when it is
+         * returned to the pool.
+         *
+         * @return the inflater
+         */
+        public Inflater inflater() {
+            return this.inflater;
+        }
+
+        /**
+         * Obtains a scratch buffer which can be used to
+         * hold inflated output.
+         *
+         * @return the scratch buffer
+         */
+        public byte[] buffer() {
+            return this.buffer;
+        }
+
+        @Override
+        public void close() {
+            // Returning twice would hand the same inflater
+            // to two borrowers
+            if (this.returned) {
+                return;
+            }
+            this.returned = true;
+
+            this.inflater.reset();
+            if (!INFLATERS.offer(this)) {
+                this.inflater.end();
+                LIVE_INFLATERS.decrement();
+            }
+        }
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Trident - A Multithreaded Server Alternative
+ * Copyright 2017 The TridentSDK Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.tridentsdk.server.world;
+
+/**
+ * An edit applied to each block in a region of a world by
+ * {@link TridentWorld#edit(int, int, int, int, int, int, BlockEdit)}.
+ *
+ * <p>Edits may be run while the section containing the
+ * block is locked, so they should not read or set other
+ * blocks in the world.</p>
+ */
+@FunctionalInterface
+public interface BlockEdit {
+    /**
+     * Obtains the new block state for the block at the
+     * given coordinates.
+     *
+     * @param x the block X coordinate
+     * @param y the block Y coordinate
+     * @param z the block Z coordinate
+     * @param state the current block state
+     * @return the new block state, or the current state to
+     * leave the block unchanged
+     */
+    short apply(int x, int y, int z, short state);
+}
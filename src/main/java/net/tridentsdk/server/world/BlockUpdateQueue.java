@@ -0,0 +1,236 @@
+/*
+ * Trident - A Multithreaded Server Alternative
+ * Copyright 2017 The TridentSDK Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.tridentsdk.server.world;
+
+import net.tridentsdk.base.Position;
+import net.tridentsdk.server.packet.PacketOut;
+import net.tridentsdk.server.packet.play.PlayOutBlockChange;
+import net.tridentsdk.server.packet.play.PlayOutChunk;
+import net.tridentsdk.server.packet.play.PlayOutMultiBlockChange;
+import net.tridentsdk.server.player.RecipientSelector;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Collects the blocks changed in each chunk of a world
+ * during a tick so that players are sent the changes all
+ * at once at the end of the tick.
+ *
+ * <p>A chunk with a single changed block is sent a block
+ * change, a chunk with a few changed blocks is sent a
+ * multi block change, and sections in which many blocks
+ * have changed are resent entirely.</p>
+ */
+@ThreadSafe
+public class BlockUpdateQueue {
+    /**
+     * The amount of changed blocks in a section at which
+     * the section is resent rather than its blocks
+     */
+    private static final int SECTION_RESEND_THRESHOLD = 64;
+
+    /**
+     * The world whose block updates are collected
+     */
+    private final TridentWorld world;
+    /**
+     * The changed blocks in each chunk
+     */
+    private final Map<TridentChunk, Changes> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new block update queue for the given world.
+     *
+     * @param world the world
+     */
+    public BlockUpdateQueue(TridentWorld world) {
+        this.world = world;
+    }
+
+    /**
+     * Marks the block at the given chunk relative
+     * coordinates as changed.
+     *
+     * @param chunk the chunk containing the block
+     * @param x the relative X
+     * @param y the Y
+     * @param z the relative Z
+     */
+    public void add(TridentChunk chunk, int x, int y, int z) {
+        int idx = y << 8 | z << 4 | x;
+        while (true) {
+            Changes changes = this.pending.computeIfAbsent(chunk, k -> new Changes());
+            synchronized (changes) {
+                if (!changes.flushed) {
+                    changes.blocks.set(idx);
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Marks the blocks in the given box, given in inclusive
+     * chunk relative coordinates, as changed.
+     *
+     * @param chunk the chunk containing the blocks
+     * @param minX the lowest relative X
+     * @param minY the lowest Y
+     * @param minZ the lowest relative Z
+     * @param maxX the highest relative X
+     * @param maxY the highest Y
+     * @param maxZ the highest relative Z
+     */
+    public void addArea(TridentChunk chunk, int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        while (true) {
+            Changes changes = this.pending.computeIfAbsent(chunk, k -> new Changes());
+            synchronized (changes) {
+                if (!changes.flushed) {
+                    for (int y = minY; y <= maxY; y++) {
+                        for (int z = minZ; z <= maxZ; z++) {
+                            int row = y << 8 | z << 4;
+                            changes.blocks.set(row | minX, (row | maxX) + 1);
+                        }
+                    }
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Marks the given blocks, indexed by
+     * {@code y << 8 | z << 4 | x} in chunk relative
+     * coordinates, as changed.
+     *
+     * @param chunk the chunk containing the blocks
+     * @param blocks the changed blocks
+     */
+    public void addAll(TridentChunk chunk, BitSet blocks) {
+        while (true) {
+            Changes changes = this.pending.computeIfAbsent(chunk, k -> new Changes());
+            synchronized (changes) {
+                if (!changes.flushed) {
+                    changes.blocks.or(blocks);
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Sends the blocks changed since the last flush to the
+     * players who can see them.
+     */
+    public void flush() {
+        for (TridentChunk chunk : this.pending.keySet()) {
+            Changes changes = this.pending.remove(chunk);
+            if (changes == null) {
+                continue;
+            }
+
+            BitSet blocks;
+            synchronized (changes) {
+                changes.flushed = true;
+                blocks = changes.blocks;
+            }
+
+            this.send(chunk, blocks);
+        }
+    }
+
+    /**
+     * Sends the given changed blocks in the given chunk.
+     *
+     * @param chunk the chunk containing the changed blocks
+     * @param blocks the changed blocks
+     */
+    private void send(TridentChunk chunk, BitSet blocks) {
+        if (chunk.getHolders().isEmpty()) {
+            return;
+        }
+
+        int resendMask = 0;
+        int[] records = new int[16];
+        int recordCount = 0;
+        for (int section = 0; section < 16; section++) {
+            int from = section << 12;
+            int to = from + 4096;
+
+            int count = blocks.get(from, to).cardinality();
+            if (count == 0) {
+                continue;
+            }
+
+            if (count >= SECTION_RESEND_THRESHOLD) {
+                resendMask |= 1 << section;
+                continue;
+            }
+
+            for (int idx = blocks.nextSetBit(from); idx >= 0 && idx < to; idx = blocks.nextSetBit(idx + 1)) {
+                int x = idx & 15;
+                int y = idx >> 8;
+                int z = idx >> 4 & 15;
+                if (recordCount == records.length) {
+                    records = Arrays.copyOf(records, recordCount << 1);
+                }
+                records[recordCount++] = PlayOutMultiBlockChange.record(x, y, z, chunk.get(x, y, z));
+            }
+        }
+
+        List<PacketOut> packets = new ArrayList<>(2);
+        if (resendMask != 0) {
+            packets.add(new PlayOutChunk(chunk, resendMask));
+        }
+
+        if (recordCount == 1) {
+            int record = records[0];
+            int x = (chunk.getX() << 4) + (record >>> 28);
+            int y = record >>> 16 & 0xFF;
+            int z = (chunk.getZ() << 4) + (record >>> 24 & 15);
+            packets.add(new PlayOutBlockChange(new Position(this.world, x, y, z), record & 0xFFFF));
+        } else if (recordCount > 1) {
+            int[] array = Arrays.copyOf(records, recordCount);
+            packets.add(new PlayOutMultiBlockChange(chunk.getX(), chunk.getZ(), array));
+        }
+
+        RecipientSelector.whoCanSee(chunk, null, packets.toArray(new PacketOut[packets.size()]));
+    }
+
+    /**
+     * The blocks changed in a chunk, indexed by
+     * {@code y << 8 | z << 4 | x}.
+     */
+    private static final class Changes {
+        @GuardedBy("this")
+        private final BitSet blocks = new BitSet(65536);
+        /**
+         * Whether these changes were removed from the queue
+         * to be sent, after which further changes must be
+         * added to a new entry
+         */
+        @GuardedBy("this")
+        private boolean flushed;
+    }
+}
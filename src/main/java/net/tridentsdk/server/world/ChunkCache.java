@@ -0,0 +1,133 @@
+/*
+ * Trident - A Multithreaded Server Alternative
+ * Copyright 2017 The TridentSDK Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.tridentsdk.server.world;
+
+import net.tridentsdk.server.TridentServer;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the memory held by the loaded chunks of a world
+ * below the configured ceiling.
+ *
+ * <p>The chunks are evicted using the CLOCK policy: a
+ * hand passes over the loaded chunks, and each chunk
+ * which has been looked up since the last pass is given
+ * a second chance instead of being evicted. Chunks which
+ * are referenced, such as by players viewing them, and
+ * spawn chunks are never evicted. Evicted chunks are
+ * queued to be saved before they are removed.</p>
+ */
+@ThreadSafe
+public class ChunkCache {
+    /**
+     * The ticks between each check of the memory held by
+     * the chunks
+     */
+    private static final int CHECK_INTERVAL = 20;
+    /**
+     * The amount of bytes in a megabyte
+     */
+    private static final long MEGABYTE = 1024 * 1024;
+
+    /**
+     * The world holding the cached chunks
+     */
+    private final TridentWorld world;
+    /**
+     * The ticks until the next check
+     */
+    @GuardedBy("this")
+    private int countdown = CHECK_INTERVAL;
+    /**
+     * The position of the clock hand in the loaded chunks
+     */
+    @GuardedBy("this")
+    private int hand;
+
+    /**
+     * Creates a new chunk cache for the given world.
+     *
+     * @param world the world holding the chunks
+     */
+    public ChunkCache(TridentWorld world) {
+        this.world = world;
+    }
+
+    /**
+     * Checks the memory held by the chunks of the world
+     * every few ticks, evicting chunks if it is above the
+     * ceiling.
+     */
+    public synchronized void tick() {
+        if (--this.countdown > 0) {
+            return;
+        }
+        this.countdown = CHECK_INTERVAL;
+
+        long ceiling = TridentServer.cfg().chunkCacheMemory() * MEGABYTE;
+        if (ceiling <= 0) {
+            return;
+        }
+
+        List<TridentChunk> chunks = new ArrayList<>(this.world.getChunks().values());
+        long[] sizes = new long[chunks.size()];
+        long used = 0;
+        for (int i = 0; i < sizes.length; i++) {
+            sizes[i] = chunks.get(i).memoryUsage();
+            used += sizes[i];
+        }
+
+        if (used > ceiling) {
+            this.evict(chunks, sizes, used - ceiling);
+        }
+    }
+
+    /**
+     * Moves the clock hand over the given chunks, evicting
+     * chunks until the given amount of memory is freed,
+     * the eviction budget is used up, or every chunk has
+     * been passed twice.
+     *
+     * @param chunks the loaded chunks
+     * @param sizes the memory held by each chunk
+     * @param excess the amount of memory to free
+     */
+    @GuardedBy("this")
+    private void evict(List<TridentChunk> chunks, long[] sizes, long excess) {
+        int count = chunks.size();
+        int budget = TridentServer.cfg().chunkUnloadsPerTick() * CHECK_INTERVAL;
+
+        // The chunks may have changed since the last pass,
+        // so this is only close to the previous position
+        int hand = this.hand % count;
+        for (int i = 0; i < count * 2 && excess > 0 && budget > 0; i++) {
+            TridentChunk chunk = chunks.get(hand);
+            if (!chunk.isPinned() && !chunk.clearAccessed() && chunk.evict()) {
+                excess -= sizes[hand];
+                budget--;
+            }
+
+            hand = hand + 1 == count ? 0 : hand + 1;
+        }
+
+        this.hand = hand;
+    }
+}
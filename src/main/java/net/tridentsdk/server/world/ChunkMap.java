@@ -16,30 +16,28 @@
  */
 package net.tridentsdk.server.world;
 
-import net.tridentsdk.server.util.Long2ReferenceOpenHashMap;
-
 import javax.annotation.Nonnull;
-import javax.annotation.concurrent.GuardedBy;
-import java.util.Collection;
-import java.util.Iterator;
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 
 /**
  * Map of loaded chunks.
  *
  * <p>This class makes concurrency handing easier on the
- * world.</p>
+ * world. Lookups do not lock, creating a chunk only locks
+ * the entry being created, and iteration is weakly
+ * consistent, so chunks may be added or removed while the
+ * map is being iterated.</p>
  */
+@ThreadSafe
 public class ChunkMap implements Iterable<TridentChunk> {
-    /**
-     * The lock guarding the chunk map
-     */
-    private final Object lock = new Object();
     /**
      * The actual map of chunks
      */
-    @GuardedBy("lock")
-    private final Long2ReferenceOpenHashMap<TridentChunk> chunks = new Long2ReferenceOpenHashMap<>();
+    private final ConcurrentHashMap<Long, TridentChunk> chunks = new ConcurrentHashMap<>();
     /**
      * The world holding the chunks in this map
      */
@@ -54,6 +52,18 @@ public class ChunkMap implements Iterable<TridentChunk> {
         this.world = world;
     }
 
+    /**
+     * Obtains the key of the chunk at the given
+     * coordinates.
+     *
+     * @param x the chunk X coordinate
+     * @param z the chunk Z coordinate
+     * @return the key
+     */
+    private static long key(int x, int z) {
+        return (long) x << 32 | z & 0xFFFFFFFFL;
+    }
+
     /**
      * Obtains the chunk at the given location and
      * determines whether a chunk will be generated if it
@@ -65,29 +75,97 @@ public class ChunkMap implements Iterable<TridentChunk> {
      * @return the chunk, or {@code null}
      */
     public TridentChunk get(int x, int z, boolean gen) {
-        long key = (long) x << 32 | z & 0xFFFFFFFFL;
-        boolean doGenerate = false;
-        TridentChunk chunk;
+        if (!gen) {
+            TridentChunk chunk = this.chunks.get(key(x, z));
+            if (chunk == null) {
+                return null;
+            }
+
+            chunk.renewUnload();
+            chunk.touch();
+            return chunk.waitReady();
+        }
 
-        synchronized (this.lock) {
-            chunk = this.chunks.get(key);
-            if ((chunk == null || !chunk.canUse()) && gen) {
-                chunk = new TridentChunk(this.world, x, z);
-                this.chunks.put(key, chunk);
+        TridentChunk chunk = this.getOrCreate(x, z);
+        chunk.generateAsync();
+        return chunk.waitReady();
+    }
 
-                doGenerate = true;
-            }
+    /**
+     * Obtains a future of the chunk at the given location,
+     * which is loaded or generated if it does not exist
+     * yet, without waiting for it to be ready.
+     *
+     * <p>Concurrent calls for a chunk that is still being
+     * loaded share the same future.</p>
+     *
+     * @param x the x coordinate
+     * @param z the z coordinate
+     * @return the future which completes once the chunk is
+     * ready
+     */
+    public CompletableFuture<TridentChunk> getAsync(int x, int z) {
+        return this.getOrCreate(x, z).generateAsync();
+    }
+
+    /**
+     * Obtains futures of the chunks at the given locations,
+     * loading the chunks which do not exist yet together,
+     * so that the chunks in the same region file are read
+     * in a single batch.
+     *
+     * @param xs the x coordinates
+     * @param zs the z coordinates
+     * @return the futures which complete once each chunk
+     * is ready, in the order of the given coordinates
+     */
+    public List<CompletableFuture<TridentChunk>> getAllAsync(int[] xs, int[] zs) {
+        List<TridentChunk> chunks = new ArrayList<>(xs.length);
+        for (int i = 0; i < xs.length; i++) {
+            chunks.add(this.getOrCreate(xs[i], zs[i]));
         }
+        TridentChunk.generateAll(chunks);
 
-        if (doGenerate) {
-            chunk.generate();
+        List<CompletableFuture<TridentChunk>> futures = new ArrayList<>(chunks.size());
+        for (TridentChunk chunk : chunks) {
+            futures.add(chunk.whenReady());
         }
 
+        return futures;
+    }
+
+    /**
+     * Obtains the chunk at the given location, creating it
+     * if it does not exist.
+     *
+     * <p>The chunk is not loaded by this method, so the
+     * caller needs to start loading the chunk.</p>
+     *
+     * @param x the x coordinate
+     * @param z the z coordinate
+     * @return the chunk, which may not be ready yet
+     */
+    private TridentChunk getOrCreate(int x, int z) {
+        long key = key(x, z);
+        TridentChunk chunk = this.chunks.get(key);
         if (chunk != null) {
-            return chunk.waitReady();
-        } else {
-            return null;
+            // Requesting the chunk again delays its unload,
+            // which needs to happen before checking whether
+            // it is still usable
+            chunk.renewUnload();
+            chunk.touch();
+            if (chunk.canUse()) {
+                return chunk;
+            }
         }
+
+        return this.chunks.compute(key, (k, cur) -> {
+            if (cur != null && cur.canUse()) {
+                return cur;
+            }
+
+            return new TridentChunk(this.world, x, z);
+        });
     }
 
     /**
@@ -99,22 +177,28 @@ public class ChunkMap implements Iterable<TridentChunk> {
      * if nothing happened
      */
     public TridentChunk remove(int x, int z) {
-        long key = (long) x << 32 | z & 0xFFFFFFFFL;
+        return this.chunks.remove(key(x, z));
+    }
 
-        synchronized (this.lock) {
-            return this.chunks.remove(key);
-        }
+    /**
+     * Removes the given chunk, unless it has already been
+     * replaced by another chunk at the same coordinates.
+     *
+     * @param chunk the chunk to remove
+     * @return {@code true} if the chunk was removed
+     */
+    public boolean remove(TridentChunk chunk) {
+        return this.chunks.remove(key(chunk.getX(), chunk.getZ()), chunk);
     }
 
     /**
      * All of the loaded chunks.
      *
-     * @return the values of the chunk map
+     * @return an unmodifiable, weakly consistent view of
+     * the values of the chunk map
      */
     public Collection<TridentChunk> values() {
-        synchronized (this.lock) {
-            return this.chunks.values();
-        }
+        return Collections.unmodifiableCollection(this.chunks.values());
     }
 
     @Nonnull
@@ -125,10 +209,6 @@ public class ChunkMap implements Iterable<TridentChunk> {
 
     @Override
     public void forEach(Consumer<? super TridentChunk> action) {
-        synchronized (this.lock) {
-            for (TridentChunk chunk : this) {
-                action.accept(chunk);
-            }
-        }
+        this.chunks.values().forEach(action);
     }
-}
\ No newline at end of file
+}
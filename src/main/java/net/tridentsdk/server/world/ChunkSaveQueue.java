@@ -0,0 +1,434 @@
+/*
+ * Trident - A Multithreaded Server Alternative
+ * Copyright 2017 The TridentSDK Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.tridentsdk.server.world;
+
+import net.tridentsdk.meta.nbt.Tag;
+import net.tridentsdk.server.concurrent.PoolSpec;
+import net.tridentsdk.server.concurrent.ServerThreadPool;
+import net.tridentsdk.server.util.JiraExceptionCatcher;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Write-behind queue which collects the chunks of a world
+ * that need to be saved and writes them to their region
+ * files on the IO thread pool.
+ *
+ * <p>Chunks are keyed by their coordinates, so a chunk that
+ * is queued several times before it is written is only
+ * serialized once, with its latest contents. The amount
+ * of chunks waiting to be written is bounded, and callers
+ * block once the limit is reached until the writer catches
+ * up.</p>
+ *
+ * <p>Each drain groups the queued chunks by their region
+ * file. The chunks of a region are serialized and
+ * compressed first, and are then handed to
+ * {@link Region#writeChunks(int[], int[], byte[][])} so
+ * that their sectors are allocated, written and published
+ * together instead of once per chunk.</p>
+ */
+@ThreadSafe
+public class ChunkSaveQueue {
+    /**
+     * The thread pool which performs the writes
+     */
+    private static final ServerThreadPool IO = ServerThreadPool.forSpec(PoolSpec.IO);
+    /**
+     * The maximum amount of chunks waiting to be written
+     */
+    private static final int MAX_PENDING = 1024;
+    /**
+     * The amount of locks used to order the write and the
+     * load of the same chunk
+     */
+    private static final int STRIPES = 64;
+
+    /**
+     * The chunks which have not yet been written
+     */
+    private final Map<Long, Entry> pending = new ConcurrentHashMap<>();
+    /**
+     * The chunks which are being written right now
+     */
+    private final Map<Long, Entry> writing = new ConcurrentHashMap<>();
+    /**
+     * The permits for chunks that may wait to be written
+     */
+    private final Semaphore capacity = new Semaphore(MAX_PENDING);
+    /**
+     * Whether or not a drain is scheduled on the writer
+     */
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    /**
+     * Locks held while a given chunk is claimed for writing
+     */
+    private final Object[] stripes = new Object[STRIPES];
+
+    /**
+     * Creates a new, empty save queue.
+     */
+    public ChunkSaveQueue() {
+        for (int i = 0; i < STRIPES; i++) {
+            this.stripes[i] = new Object();
+        }
+    }
+
+    /**
+     * Queues the given chunk to be written, blocking if
+     * too many chunks are already waiting. Chunks which have
+     * not changed since they were last saved are skipped.
+     *
+     * @param chunk the chunk to save
+     */
+    public void enqueue(TridentChunk chunk) {
+        this.add(chunk, true);
+    }
+
+    /**
+     * Queues the given chunk to be written if there is room
+     * in the queue.
+     *
+     * @param chunk the chunk to save
+     * @return {@code false} if the queue is full and the
+     * chunk needs to be offered again later
+     */
+    public boolean offer(TridentChunk chunk) {
+        return this.add(chunk, false);
+    }
+
+    /**
+     * Adds the chunk to the queue, unless it is clean or
+     * already waiting.
+     *
+     * @param chunk the chunk to save
+     * @param block {@code true} to wait for room in the
+     * queue
+     * @return {@code false} if the queue was full
+     */
+    private boolean add(TridentChunk chunk, boolean block) {
+        if (!chunk.isDirty()) {
+            return true;
+        }
+
+        long key = key(chunk.getX(), chunk.getZ());
+        Entry existing = this.pending.get(key);
+        if (existing != null && existing.chunk == chunk) {
+            return true;
+        }
+
+        if (block) {
+            this.capacity.acquireUninterruptibly();
+        } else if (!this.capacity.tryAcquire()) {
+            return false;
+        }
+
+        Entry entry = new Entry(chunk);
+        Entry replaced = this.pending.put(key, entry);
+        if (replaced != null) {
+            // The slot was already counted, so whoever
+            // waits on the replaced entry will wait for
+            // the newer one instead
+            this.capacity.release();
+            entry.done.whenComplete((v, t) -> replaced.done.complete(null));
+        }
+
+        this.schedule();
+        return true;
+    }
+
+    /**
+     * Writes the chunk at the given coordinates if it is
+     * still waiting to be saved, or waits for it if it is
+     * being written, so that a load of the same chunk reads
+     * up-to-date data from its region file.
+     *
+     * @param x the chunk X coordinate
+     * @param z the chunk Z coordinate
+     */
+    public void flush(int x, int z) {
+        long key = key(x, z);
+        while (true) {
+            Entry entry;
+            synchronized (this.stripe(key)) {
+                entry = this.writing.get(key);
+                if (entry == null) {
+                    entry = this.claim(key, this.pending.get(key));
+                    if (entry == null) {
+                        return;
+                    }
+
+                    this.write(Collections.singletonList(entry));
+                    return;
+                }
+            }
+
+            // The stripe is not held while waiting, since
+            // the writer may still be claiming other chunks
+            // of its batch
+            entry.done.handle((v, t) -> null).join();
+        }
+    }
+
+    /**
+     * Obtains a future which completes once every chunk
+     * queued up to this point has been written.
+     *
+     * @return the barrier future
+     */
+    public CompletableFuture<Void> flush() {
+        List<CompletableFuture<Void>> waiting = new ArrayList<>();
+        for (Entry entry : this.pending.values()) {
+            waiting.add(entry.done);
+        }
+        for (Entry entry : this.writing.values()) {
+            waiting.add(entry.done);
+        }
+
+        this.schedule();
+        return CompletableFuture.allOf(waiting.toArray(new CompletableFuture[waiting.size()]));
+    }
+
+    /**
+     * Schedules the writer if it is not already going to
+     * run.
+     */
+    private void schedule() {
+        if (this.scheduled.compareAndSet(false, true)) {
+            IO.execute(this::drain);
+        }
+    }
+
+    /**
+     * Claims all of the queued chunks and writes them one
+     * region file at a time.
+     */
+    private void drain() {
+        // Chunks queued after this point will schedule a
+        // new drain
+        this.scheduled.set(false);
+
+        Map<Long, List<Entry>> regions = new HashMap<>();
+        for (Map.Entry<Long, Entry> e : this.pending.entrySet()) {
+            long key = e.getKey();
+            Entry entry;
+            synchronized (this.stripe(key)) {
+                entry = this.claim(key, e.getValue());
+            }
+
+            if (entry != null) {
+                long region = key(entry.chunk.getX() >> 5, entry.chunk.getZ() >> 5);
+                regions.computeIfAbsent(region, k -> new ArrayList<>()).add(entry);
+            }
+        }
+
+        for (List<Entry> entries : regions.values()) {
+            try {
+                this.write(entries);
+            } catch (RuntimeException ex) {
+                JiraExceptionCatcher.serverException(ex);
+            }
+        }
+    }
+
+    /**
+     * Moves the given entry from the pending chunks to the
+     * chunks being written. Must hold the stripe lock of
+     * the key.
+     *
+     * @param key the chunk key
+     * @param entry the entry to claim, may be {@code null}
+     * @return the claimed entry, or {@code null} if it has
+     * already been claimed or replaced, or if an older
+     * entry for the same chunk is still being written
+     */
+    private Entry claim(long key, Entry entry) {
+        // Writing the same chunk twice at once could
+        // publish the older data last, so the entry is
+        // left for the drain scheduled by finish
+        if (entry == null || this.writing.containsKey(key)) {
+            return null;
+        }
+
+        this.writing.put(key, entry);
+        if (!this.pending.remove(key, entry)) {
+            this.writing.remove(key, entry);
+            return null;
+        }
+
+        return entry;
+    }
+
+    /**
+     * Serializes and compresses the claimed chunks of a
+     * region, then writes them to the region file in one
+     * batch.
+     *
+     * @param entries the claimed entries, which all belong
+     * to the same region file
+     */
+    private void write(List<Entry> entries) {
+        Region region;
+        try {
+            region = Region.getFile(entries.get(0).chunk, true);
+        } catch (RuntimeException e) {
+            for (Entry entry : entries) {
+                this.finish(entry, e);
+            }
+            throw e;
+        }
+
+        int count = entries.size();
+        int[] xs = new int[count];
+        int[] zs = new int[count];
+        byte[][] data = new byte[count][];
+        long[] modCounts = new long[count];
+        List<Entry> batch = new ArrayList<>(count);
+
+        for (Entry entry : entries) {
+            // Another entry for the same chunk may have
+            // already written these changes
+            if (!entry.chunk.isDirty()) {
+                this.finish(entry, null);
+                continue;
+            }
+
+            try {
+                int i = batch.size();
+                xs[i] = entry.chunk.getX() & 31;
+                zs[i] = entry.chunk.getZ() & 31;
+                modCounts[i] = entry.chunk.getModCount();
+                data[i] = encode(region, entry.chunk, xs[i], zs[i]);
+                batch.add(entry);
+            } catch (RuntimeException e) {
+                this.finish(entry, e);
+                JiraExceptionCatcher.serverException(e);
+            }
+        }
+
+        int written = batch.size();
+        try {
+            region.writeChunks(Arrays.copyOf(xs, written), Arrays.copyOf(zs, written), Arrays.copyOf(data, written));
+        } catch (RuntimeException e) {
+            for (Entry entry : batch) {
+                this.finish(entry, e);
+            }
+            throw e;
+        }
+
+        for (int i = 0; i < written; i++) {
+            Entry entry = batch.get(i);
+            entry.chunk.markSaved(modCounts[i]);
+            this.finish(entry, null);
+        }
+    }
+
+    /**
+     * Completes a claimed entry and schedules the writer
+     * again if the same chunk was queued while it was being
+     * written.
+     *
+     * @param entry the claimed entry
+     * @param error the write failure, or {@code null} if
+     * it was written
+     */
+    private void finish(Entry entry, Throwable error) {
+        long key = key(entry.chunk.getX(), entry.chunk.getZ());
+        this.writing.remove(key, entry);
+        this.capacity.release();
+        if (error == null) {
+            entry.done.complete(null);
+        } else {
+            entry.done.completeExceptionally(error);
+        }
+
+        if (this.pending.containsKey(key)) {
+            this.schedule();
+        }
+    }
+
+    /**
+     * Serializes the given chunk and compresses it for its
+     * region file, keeping the tags of the existing chunk
+     * data which are not written by the server.
+     *
+     * @param region the region file of the chunk
+     * @param chunk the chunk to encode
+     * @param rX the region relative chunk X coordinate
+     * @param rZ the region relative chunk Z coordinate
+     * @return the compressed chunk data
+     */
+    private static byte[] encode(Region region, TridentChunk chunk, int rX, int rZ) {
+        try {
+            Tag.Compound root = null;
+            if (region.hasChunk(rX, rZ)) {
+                try (DataInputStream in = region.getChunkDataInputStream(rX, rZ)) {
+                    if (in != null) {
+                        root = Tag.decode(in);
+                    }
+                }
+            }
+
+            Tag.Compound level;
+            if (root == null) {
+                root = new Tag.Compound("");
+                level = new Tag.Compound("Level");
+                root.putCompound(level);
+            } else {
+                level = root.getCompound("Level");
+            }
+
+            chunk.write(level);
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(8096);
+            try (DataOutputStream out = Region.getCompressingStream(bytes)) {
+                root.write(out);
+            }
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private Object stripe(long key) {
+        return this.stripes[(int) (key ^ key >>> 32) & STRIPES - 1];
+    }
+
+    private static long key(int x, int z) {
+        return (long) x << 32 | z & 0xFFFFFFFFL;
+    }
+
+    /**
+     * A chunk waiting to be written.
+     */
+    private static final class Entry {
+        private final TridentChunk chunk;
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        private Entry(TridentChunk chunk) {
+            this.chunk = chunk;
+        }
+    }
+}
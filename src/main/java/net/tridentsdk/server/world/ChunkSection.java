@@ -17,19 +17,41 @@
 package net.tridentsdk.server.world;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
 import net.tridentsdk.meta.nbt.Tag;
 import net.tridentsdk.server.util.NibbleArray;
-import net.tridentsdk.server.util.ShortArrayList;
-import net.tridentsdk.server.util.ShortOpenHashSet;
 
 import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.Immutable;
 import javax.annotation.concurrent.ThreadSafe;
-import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.StampedLock;
 
 import static net.tridentsdk.server.net.NetData.wvint;
 
 /**
  * Represents a 16x16x16 horizontal slab in a chunk column.
+ *
+ * <p>Blocks are stored in the same format that is sent to
+ * the client: indexes into a palette of block states,
+ * packed into longs using as few bits as the palette
+ * allows, starting at 4 bits per block. Once the palette
+ * no longer fits into 8 bits, the block states are stored
+ * directly using 13 bits per block.</p>
+ *
+ * <p>Sections made up of a single block state, such as
+ * the air above or the stone below the surface, only store
+ * that state. The first differing block that is set
+ * inflates the section to the packed format, and
+ * {@link #compact()} collapses it back once it is uniform
+ * again. Light that is the same for every block is stored
+ * the same way.</p>
+ *
+ * <p>Each section has its own lock. Reads are optimistic
+ * and only take the read lock if a block was set while
+ * they were reading.</p>
  */
 @ThreadSafe
 public class ChunkSection {
@@ -46,35 +68,60 @@ public class ChunkSection {
      */
     private static final int BLOCKS_PER_SECTION = 4096;
     /**
-     * The number of block state values that can be stored
-     * in a single long
+     * The smallest amount of bits used for each block
+     */
+    private static final int MIN_BITS_PER_BLOCK = 4;
+    /**
+     * The amount of light nibbles in a section, in bytes
+     */
+    private static final int LIGHT_BYTES = BLOCKS_PER_SECTION / 2;
+    /**
+     * The largest amount of bits used for each block with
+     * a palette
      */
-    private static final int SHORTS_PER_LONG = 4;
+    private static final int MAX_PALETTE_BITS = 8;
+    /**
+     * The amount of bits used for each block once block
+     * states are stored directly
+     */
+    private static final int GLOBAL_BITS_PER_BLOCK = 13;
+    /**
+     * Rough size of the section, lock and storage objects
+     * themselves
+     */
+    private static final int SECTION_OVERHEAD = 128;
 
     /**
-     * The palette that caches the block states used by this
-     * ChunkSection and evicts unused entries when the
-     * chunk is written.
+     * The lock guarding the block storage
      */
-    @GuardedBy("mainPalette")
-    private final ShortOpenHashSet mainPalette = new ShortOpenHashSet();
+    private final StampedLock lock = new StampedLock();
     /**
-     * The data array, which contains palette indexes at
-     * the XYZ index in the array
+     * The palette and the packed block data
      */
-    private final AtomicLongArray data = new AtomicLongArray(BLOCKS_PER_SECTION / SHORTS_PER_LONG);
+    @GuardedBy("lock")
+    private Storage storage = Storage.single((short) 0);
     /**
-     * The nibble array of light emitted from blocks
+     * The light emitted from blocks
      */
-    private final NibbleArray blockLight = new NibbleArray(BLOCKS_PER_SECTION / 2);
+    private volatile Light blockLight = Light.FULL;
     /**
-     * The nibble array of light reaching from the sky
+     * The light reaching from the sky
      */
-    private final NibbleArray skyLight = new NibbleArray(BLOCKS_PER_SECTION / 2);
+    private volatile Light skyLight = Light.FULL;
     /**
      * The flag for writing skylight in other dimensions
      */
     private final boolean doSkylight;
+    /**
+     * The block version, incremented each time a block in
+     * this section is set
+     */
+    private final AtomicInteger version = new AtomicInteger();
+    /**
+     * The protocol encoding of this section, or
+     * {@code null} if it has not been encoded yet
+     */
+    private volatile Encoded encoded;
 
     /**
      * Creates a new chunk section.
@@ -82,13 +129,6 @@ public class ChunkSection {
      * @param doSkylight whether to write skylight
      */
     public ChunkSection(boolean doSkylight) {
-        this.mainPalette.add((short) 0);
-        for (int i = 0; i < this.data.length(); i++) {
-            this.data.set(i, 0L);
-        }
-
-        this.blockLight.fill((byte) 0xF);
-        this.skyLight.fill((byte) 0xF);
         this.doSkylight = doSkylight;
     }
 
@@ -100,22 +140,22 @@ public class ChunkSection {
      * @param state the block getState to set
      */
     public void set(int idx, short state) {
-        synchronized (this.mainPalette) {
-            this.mainPalette.add(state);
-        }
-
-        int spliceIdx = idx >>> 2;
-        long shift = idx % SHORTS_PER_LONG << 4;
+        long stamp = this.lock.writeLock();
+        try {
+            Storage storage = this.storage;
+            int value = storage.valueOf(state);
+            if (value == -1) {
+                storage = storage.resize(1);
+                this.storage = storage;
+                value = storage.valueOf(state);
+            }
 
-        long placeMask = ~(0xFFFFL << shift);
-        long shiftedState = (long) state << shift;
+            storage.set(idx, value);
+        } finally {
+            this.lock.unlockWrite(stamp);
+        }
 
-        long oldSplice;
-        long newSplice;
-        do {
-            oldSplice = this.data.get(spliceIdx);
-            newSplice = oldSplice & placeMask | shiftedState;
-        } while (!this.data.compareAndSet(spliceIdx, oldSplice, newSplice));
+        this.version.incrementAndGet();
         // TODO relighting
     }
 
@@ -127,110 +167,300 @@ public class ChunkSection {
      * @return A tuple consisting of substance and meta
      */
     public short dataAt(int idx) {
-        int spliceIdx = idx >>> 2;
-        long shift = idx % SHORTS_PER_LONG << 4;
-        return (short) (this.data.get(spliceIdx) >>> shift & 0xFFFF);
+        long stamp = this.lock.tryOptimisticRead();
+        if (stamp != 0) {
+            Storage storage = this.storage;
+            short state = storage.stateOf(storage.get(idx));
+            if (this.lock.validate(stamp)) {
+                return state;
+            }
+        }
+
+        stamp = this.lock.readLock();
+        try {
+            Storage storage = this.storage;
+            return storage.stateOf(storage.get(idx));
+        } finally {
+            this.lock.unlockRead(stamp);
+        }
     }
 
     /**
-     * Writes the section data to the given byte stream.
+     * Sets every block in the given box of this section,
+     * given in inclusive section relative coordinates, to
+     * the given block state.
      *
-     * @param buf the buffer to write the section data
+     * <p>Whole rows of blocks are written a long at a time
+     * where the bits per block allow it, and filling the
+     * entire section leaves only the single block
+     * state.</p>
+     *
+     * @param minX the lowest X
+     * @param minY the lowest Y
+     * @param minZ the lowest Z
+     * @param maxX the highest X
+     * @param maxY the highest Y
+     * @param maxZ the highest Z
+     * @param state the block state to set
      */
-    public void write(ByteBuf buf) {
-        int dataLen = 0;
-        ByteBuf dataBuffer = buf.alloc().buffer();
+    public void fill(int minX, int minY, int minZ, int maxX, int maxY, int maxZ, short state) {
+        boolean fullX = minX == 0 && maxX == 15;
+        boolean fullZ = minZ == 0 && maxZ == 15;
+
+        long stamp = this.lock.writeLock();
+        try {
+            if (fullX && fullZ && minY == 0 && maxY == 15) {
+                this.storage = Storage.single(state);
+            } else {
+                Storage storage = this.storage;
+                int value = storage.valueOf(state);
+                if (value == -1) {
+                    storage = storage.resize(1);
+                    this.storage = storage;
+                    value = storage.valueOf(state);
+                }
 
-        ShortArrayList palette = null;
-        int bitsPerBlock;
-        boolean doPalette;
-        synchronized (this.mainPalette) {
-            int paletteSize = this.mainPalette.size();
-            bitsPerBlock = Integer.highestOneBit(paletteSize);
-            if (bitsPerBlock < 4) {
-                bitsPerBlock = 4;
+                if (fullX && fullZ) {
+                    // Layers are contiguous
+                    storage.fill(minY << 8, maxY + 1 << 8, value);
+                } else {
+                    for (int y = minY; y <= maxY; y++) {
+                        for (int z = minZ; z <= maxZ; z++) {
+                            int row = y << 8 | z << 4;
+                            storage.fill(row | minX, (row | maxX) + 1, value);
+                        }
+                    }
+                }
             }
+        } finally {
+            this.lock.unlockWrite(stamp);
+        }
 
-            doPalette = bitsPerBlock < 9;
+        this.version.incrementAndGet();
+    }
 
-            this.mainPalette.clear();
-            this.mainPalette.add((short) 0);
+    /**
+     * Applies the given edit to every block in the given
+     * box of this section, given in inclusive section
+     * relative coordinates.
+     *
+     * @param minX the lowest X
+     * @param minY the lowest Y
+     * @param minZ the lowest Z
+     * @param maxX the highest X
+     * @param maxY the highest Y
+     * @param maxZ the highest Z
+     * @param edit the edit, which is passed the section
+     * relative coordinates of each block
+     * @return {@code true} if any block was changed
+     */
+    public boolean edit(int minX, int minY, int minZ, int maxX, int maxY, int maxZ, BlockEdit edit) {
+        boolean changed = false;
+
+        long stamp = this.lock.writeLock();
+        try {
+            Storage storage = this.storage;
+            for (int y = minY; y <= maxY; y++) {
+                for (int z = minZ; z <= maxZ; z++) {
+                    for (int x = minX; x <= maxX; x++) {
+                        int idx = y << 8 | z << 4 | x;
+                        short state = storage.stateOf(storage.get(idx));
+                        short newState = edit.apply(x, y, z, state);
+                        if (newState == state) {
+                            continue;
+                        }
 
-            if (!doPalette) {
-                bitsPerBlock = 13;
-            } else {
-                palette = new ShortArrayList(paletteSize);
-                palette.add((short) 0);
-            }
-
-            int individualValueMask = (1 << bitsPerBlock) - 1;
-            int bitsWritten = 0;
-            long cur = 0;
-            for (int y = 0; y < 16; y++) {
-                for (int z = 0; z < 16; z++) {
-                    for (int x = 0; x < 16; x++) {
-                        int realIdx = y << 8 | z << 4 | x;
-                        int data = this.dataAt(realIdx);
-                        short shortData = (short) data;
-                        boolean added = this.mainPalette.add(shortData);
-
-                        if (doPalette) {
-                            if (added) {
-                                data = palette.add(shortData);
-                            } else {
-                                data = palette.indexOf(shortData);
-                                if (data == -1) {
-                                    throw new IllegalStateException("Failed to lock");
-                                }
-                            }
+                        int value = storage.valueOf(newState);
+                        if (value == -1) {
+                            storage = storage.resize(1);
+                            this.storage = storage;
+                            value = storage.valueOf(newState);
                         }
 
-                        int shift = realIdx * bitsPerBlock % 64;
-                        long or = data & individualValueMask;
-                        bitsWritten += bitsPerBlock;
+                        storage.set(idx, value);
+                        changed = true;
+                    }
+                }
+            }
+        } finally {
+            this.lock.unlockWrite(stamp);
+        }
+
+        if (changed) {
+            this.version.incrementAndGet();
+        }
+        return changed;
+    }
+
+    /**
+     * Rebuilds the palette of this section from the block
+     * states which are still in use, using fewer bits per
+     * block if they allow it, or collapsing the section
+     * into a single block state if every block in it is the
+     * same.
+     *
+     * <p>This is skipped if another thread is reading the
+     * section, in which case the section is compacted the
+     * next time this is called.</p>
+     *
+     * @return {@code true} if the section was compacted
+     */
+    public boolean compact() {
+        long stamp = this.lock.readLock();
+        try {
+            Storage storage = this.storage;
+            if (storage.bits == 0) {
+                return false;
+            }
 
-                        if (bitsWritten == 64) {
-                            dataLen++;
-                            dataBuffer.writeLong(cur | or << shift);
+            Storage compacted = storage.resize(0);
+            if (compacted.bits >= storage.bits) {
+                return false;
+            }
 
-                            cur = 0;
-                            bitsWritten = 0;
-                        } else if (bitsWritten > 64) {
-                            bitsWritten -= 64;
-                            int lowerLen = bitsPerBlock - bitsWritten;
-                            int lowerMask = (1 << lowerLen) - 1;
+            long writeStamp = this.lock.tryConvertToWriteLock(stamp);
+            if (writeStamp == 0) {
+                return false;
+            }
+            stamp = writeStamp;
+
+            // The blocks do not change, so the cached
+            // encoding is still valid
+            this.storage = compacted;
+            return true;
+        } finally {
+            this.lock.unlock(stamp);
+        }
+    }
 
-                            dataLen++;
-                            dataBuffer.writeLong(cur | (or & lowerMask) << shift);
+    /**
+     * Obtains the amount of bits used for each block in
+     * this section.
+     *
+     * @return the bits per block, 0 if the section holds a
+     * single block state
+     */
+    int bitsPerBlock() {
+        long stamp = this.lock.readLock();
+        try {
+            return this.storage.bits;
+        } finally {
+            this.lock.unlockRead(stamp);
+        }
+    }
 
-                            cur = (or & ~lowerMask) >> lowerLen;
-                        } else {
-                            cur |= or << shift;
-                        }
-                    }
-                }
+    /**
+     * Estimates the amount of memory held by this section,
+     * including the light and the cached encoding.
+     *
+     * @return the estimated size in bytes
+     */
+    public long memoryUsage() {
+        Encoded encoded = this.encoded;
+        long size = SECTION_OVERHEAD + this.blockLight.memoryUsage() + this.skyLight.memoryUsage() +
+                (encoded == null ? 0 : encoded.bytes.length);
+
+        long stamp = this.lock.tryOptimisticRead();
+        if (stamp != 0) {
+            long storage = this.storage.memoryUsage();
+            if (this.lock.validate(stamp)) {
+                return size + storage;
             }
         }
 
-        // Write Bits per block
-        buf.writeByte(bitsPerBlock);
+        stamp = this.lock.readLock();
+        try {
+            return size + this.storage.memoryUsage();
+        } finally {
+            this.lock.unlockRead(stamp);
+        }
+    }
 
-        // Write the palette size
-        wvint(buf, doPalette ? palette.size() : 0);
+    /**
+     * Writes the section data to the given byte stream.
+     *
+     * <p>The encoded section is kept and reused until a
+     * block in this section is set.</p>
+     *
+     * @param buf the buffer to write the section data
+     */
+    public void write(ByteBuf buf) {
+        buf.writeBytes(this.encoded());
+    }
 
-        // Write palette
-        for (int i = 0, max = doPalette ? palette.size() : 0; i < max; i++) {
-            wvint(buf, palette.getShort(i));
+    /**
+     * Obtains the protocol encoding of this section,
+     * encoding it again if a block was set since it was
+     * last encoded.
+     *
+     * <p>The returned array is shared and must not be
+     * modified.</p>
+     *
+     * @return the encoded section data
+     */
+    byte[] encoded() {
+        // The version is read before encoding, so a block
+        // set while encoding causes the next call to
+        // encode again
+        int version = this.version.get();
+        Encoded encoded = this.encoded;
+        if (encoded == null || encoded.version != version) {
+            ByteBuf sectionData = ByteBufAllocator.DEFAULT.heapBuffer();
+            try {
+                this.encode(sectionData);
+
+                byte[] bytes = new byte[sectionData.readableBytes()];
+                sectionData.readBytes(bytes);
+                encoded = new Encoded(version, bytes);
+                this.encoded = encoded;
+            } finally {
+                sectionData.release();
+            }
         }
 
-        // Write the section data length
-        wvint(buf, dataLen);
+        return encoded.bytes;
+    }
 
-        // Write the actual data
-        buf.writeBytes(dataBuffer);
+    /**
+     * Encodes the section data in the protocol format.
+     *
+     * @param buf the buffer to write the section data
+     */
+    private void encode(ByteBuf buf) {
+        long stamp = this.lock.readLock();
+        try {
+            Storage storage = this.storage;
+            if (storage.bits == 0) {
+                // The protocol has no single state format,
+                // so write a palette with the state and
+                // blocks which all refer to it
+                int longs = BLOCKS_PER_SECTION * MIN_BITS_PER_BLOCK / Long.SIZE;
+                buf.writeByte(MIN_BITS_PER_BLOCK);
+                wvint(buf, 1);
+                wvint(buf, storage.palette[0]);
+                wvint(buf, longs);
+                buf.writeZero(longs * Long.BYTES);
+            } else {
+                // Write Bits per block
+                buf.writeByte(storage.bits);
+
+                // Write the palette, which is empty if the
+                // global palette is used
+                wvint(buf, storage.paletteSize);
+                for (int i = 0; i < storage.paletteSize; i++) {
+                    wvint(buf, storage.palette[i]);
+                }
 
-        if (dataBuffer != null) {
-            dataBuffer.release();
+                // Write the section data, which is already
+                // in the protocol layout
+                long[] data = storage.data;
+                wvint(buf, data.length);
+                for (long l : data) {
+                    buf.writeLong(l);
+                }
+            }
+        } finally {
+            this.lock.unlockRead(stamp);
         }
 
         // Write block light
@@ -255,9 +485,10 @@ public class ChunkSection {
         byte[] skyLight = section.getByteArray("SkyLight");
         byte[] blockLight = section.getByteArray("BlockLight");
 
-        this.skyLight.read(skyLight);
-        this.blockLight.read(blockLight);
+        this.skyLight = Light.read(skyLight);
+        this.blockLight = Light.read(blockLight);
 
+        short[] states = new short[BLOCKS_PER_SECTION];
         for (int y = 0; y < 16; y++) {
             for (int z = 0; z < 16; z++) {
                 for (int x = 0; x < 16; x++) {
@@ -267,15 +498,24 @@ public class ChunkSection {
                     byte blockData = NibbleArray.getNibble(data, realIdx);
                     if (add != null) {
                         int blockId = block + ((int) NibbleArray.getNibble(add, realIdx) << 8);
-                        short state = (short) (blockId << 4 | blockData);
-                        this.set(realIdx, state);
+                        states[realIdx] = (short) (blockId << 4 | blockData);
                     } else {
-                        short state = (short) (block << 4 | blockData);
-                        this.set(realIdx, state);
+                        states[realIdx] = (short) (block << 4 | blockData);
                     }
                 }
             }
         }
+
+        // The palette is built once for the whole section
+        // rather than growing block by block
+        Storage storage = Storage.of(states, 0);
+        long stamp = this.lock.writeLock();
+        try {
+            this.storage = storage;
+        } finally {
+            this.lock.unlockWrite(stamp);
+        }
+        this.version.incrementAndGet();
     }
 
     /**
@@ -287,7 +527,7 @@ public class ChunkSection {
      */
     public void write(Tag.Compound section) {
         section.putByteArray("SkyLight", this.skyLight.write());
-        section.putByteArray("BlockLight", this.skyLight.write());
+        section.putByteArray("BlockLight", this.blockLight.write());
 
         byte[] blocks = new byte[4096];
         byte[] add = new byte[2048];
@@ -312,4 +552,403 @@ public class ChunkSection {
         section.putByteArray("Add", add);
         section.putByteArray("Data", data);
     }
-}
\ No newline at end of file
+
+    /**
+     * A section encoding and the block version at which it
+     * was encoded.
+     */
+    private static final class Encoded {
+        private final int version;
+        private final byte[] bytes;
+
+        public Encoded(int version, byte[] bytes) {
+            this.version = version;
+            this.bytes = bytes;
+        }
+    }
+
+    /**
+     * The block palette and the block data packed into
+     * longs, using the protocol layout where a value may
+     * span two longs.
+     */
+    private static final class Storage {
+        /**
+         * The amount of bits used for each block
+         */
+        private final int bits;
+        /**
+         * The mask of a single value
+         */
+        private final long mask;
+        /**
+         * The block states which are indexed by the block
+         * data, or {@code null} if the block data holds the
+         * block states
+         */
+        private final short[] palette;
+        /**
+         * The amount of states in the palette
+         */
+        private int paletteSize;
+        /**
+         * The packed block data
+         */
+        private final long[] data;
+
+        public Storage(int bits) {
+            this.bits = bits;
+            this.mask = (1L << bits) - 1;
+            this.data = new long[BLOCKS_PER_SECTION * bits / Long.SIZE];
+
+            if (bits == 0) {
+                this.palette = new short[1];
+                this.paletteSize = 1;
+            } else if (bits <= MAX_PALETTE_BITS) {
+                // Air is always the first entry, which is
+                // what the empty data refers to
+                this.palette = new short[1 << bits];
+                this.paletteSize = 1;
+            } else {
+                this.palette = null;
+            }
+        }
+
+        /**
+         * Obtains the size of the palette and data arrays.
+         *
+         * @return the size in bytes
+         */
+        public long memoryUsage() {
+            return (long) this.data.length * Long.BYTES +
+                    (this.palette == null ? 0 : this.palette.length * Short.BYTES);
+        }
+
+        /**
+         * Creates a storage holding only the given block
+         * state, which uses no bits per block.
+         *
+         * @param state the block state
+         * @return the new storage
+         */
+        public static Storage single(short state) {
+            Storage storage = new Storage(0);
+            storage.palette[0] = state;
+            return storage;
+        }
+
+        /**
+         * Obtains the value that stands for the given block
+         * state, adding it to the palette if needed.
+         *
+         * @param state the block state
+         * @return the value, or -1 if the palette is full
+         */
+        public int valueOf(short state) {
+            if (this.palette == null) {
+                return state & 0xFFFF;
+            }
+
+            for (int i = 0; i < this.paletteSize; i++) {
+                if (this.palette[i] == state) {
+                    return i;
+                }
+            }
+
+            if (this.paletteSize == this.palette.length) {
+                return -1;
+            }
+
+            this.palette[this.paletteSize] = state;
+            return this.paletteSize++;
+        }
+
+        /**
+         * Obtains the block state that the given value
+         * stands for.
+         *
+         * @param value the value
+         * @return the block state
+         */
+        public short stateOf(int value) {
+            if (this.palette == null) {
+                return (short) value;
+            }
+
+            // Can only be out of range for an optimistic
+            // read which is retried
+            return value < this.palette.length ? this.palette[value] : 0;
+        }
+
+        /**
+         * Obtains the value at the given block index.
+         *
+         * @param idx the block index
+         * @return the value
+         */
+        public int get(int idx) {
+            if (this.bits == 0) {
+                return 0;
+            }
+
+            int bitIdx = idx * this.bits;
+            int word = bitIdx >>> 6;
+            int offset = bitIdx & 63;
+
+            long value = this.data[word] >>> offset;
+            if (offset + this.bits > Long.SIZE) {
+                value |= this.data[word + 1] << Long.SIZE - offset;
+            }
+
+            return (int) (value & this.mask);
+        }
+
+        /**
+         * Sets the value at the given block index.
+         *
+         * @param idx the block index
+         * @param value the value
+         */
+        public void set(int idx, int value) {
+            if (this.bits == 0) {
+                return;
+            }
+
+            int bitIdx = idx * this.bits;
+            int word = bitIdx >>> 6;
+            int offset = bitIdx & 63;
+            long v = value & this.mask;
+
+            this.data[word] = this.data[word] & ~(this.mask << offset) | v << offset;
+            if (offset + this.bits > Long.SIZE) {
+                int spilled = Long.SIZE - offset;
+                this.data[word + 1] = this.data[word + 1] & ~(this.mask >>> spilled) | v >>> spilled;
+            }
+        }
+
+        /**
+         * Sets the blocks from the first index up to but not
+         * including the last index to the given value.
+         *
+         * @param from the first block index
+         * @param to the block index to stop at
+         * @param value the value
+         */
+        public void fill(int from, int to, int value) {
+            if (this.bits == 0) {
+                return;
+            }
+
+            int idx = from;
+            if (Long.SIZE % this.bits == 0) {
+                // Values do not span longs, so whole longs
+                // in the range can be written at once
+                int perLong = Long.SIZE / this.bits;
+                for (; idx < to && idx % perLong != 0; idx++) {
+                    this.set(idx, value);
+                }
+
+                long pattern = 0;
+                for (int i = 0; i < perLong; i++) {
+                    pattern |= (value & this.mask) << i * this.bits;
+                }
+
+                for (; idx + perLong <= to; idx += perLong) {
+                    this.data[idx / perLong] = pattern;
+                }
+            }
+
+            for (; idx < to; idx++) {
+                this.set(idx, value);
+            }
+        }
+
+        /**
+         * Copies the blocks into a storage whose palette
+         * only holds the block states which are in use,
+         * with room for the given amount of new states.
+         *
+         * <p>Entries for states which are no longer in the
+         * section are dropped, so the storage only grows
+         * once every palette entry is in use.</p>
+         *
+         * @param extra the amount of new states to make
+         * room for
+         * @return the new storage
+         */
+        public Storage resize(int extra) {
+            short[] states = new short[BLOCKS_PER_SECTION];
+            for (int i = 0; i < BLOCKS_PER_SECTION; i++) {
+                states[i] = this.stateOf(this.get(i));
+            }
+
+            return of(states, extra);
+        }
+
+        /**
+         * Creates a storage holding the given block states,
+         * with room for the given amount of new states.
+         *
+         * @param states the state of each block
+         * @param extra the amount of new states to make
+         * room for
+         * @return the new storage
+         */
+        public static Storage of(short[] states, int extra) {
+            BitSet used = new BitSet();
+            for (short state : states) {
+                used.set(state & 0xFFFF);
+            }
+
+            int bits = bitsFor(used.cardinality() + extra);
+            if (bits == 0) {
+                return single(states[0]);
+            }
+
+            Storage storage = new Storage(bits);
+            if (storage.palette == null) {
+                for (int i = 0; i < BLOCKS_PER_SECTION; i++) {
+                    storage.set(i, states[i] & 0xFFFF);
+                }
+                return storage;
+            }
+
+            // The palette is sorted, so the value of a state
+            // is found by a binary search
+            int[] palette = used.stream().toArray();
+            for (int i = 0; i < palette.length; i++) {
+                storage.palette[i] = (short) palette[i];
+            }
+            storage.paletteSize = palette.length;
+
+            for (int i = 0; i < BLOCKS_PER_SECTION; i++) {
+                storage.set(i, Arrays.binarySearch(palette, states[i] & 0xFFFF));
+            }
+            return storage;
+        }
+
+        /**
+         * Obtains the amount of bits per block needed to
+         * hold the given amount of block states.
+         *
+         * @param states the amount of states
+         * @return the bits per block
+         */
+        private static int bitsFor(int states) {
+            if (states <= 1) {
+                return 0;
+            }
+
+            int bits = Math.max(MIN_BITS_PER_BLOCK, Integer.SIZE - Integer.numberOfLeadingZeros(states - 1));
+            return bits > MAX_PALETTE_BITS ? GLOBAL_BITS_PER_BLOCK : bits;
+        }
+    }
+
+    /**
+     * The light of every block in a section, which only
+     * holds a single value if the light is the same for
+     * every block.
+     */
+    @Immutable
+    private static final class Light {
+        /**
+         * Full light, which is what new sections start with
+         */
+        private static final Light FULL = new Light(null, (byte) 0xF);
+
+        /**
+         * The light of each block, or {@code null} if every
+         * block has the same light
+         */
+        private final NibbleArray nibbles;
+        /**
+         * The light of every block if there are no nibbles
+         */
+        private final byte value;
+
+        private Light(NibbleArray nibbles, byte value) {
+            this.nibbles = nibbles;
+            this.value = value;
+        }
+
+        /**
+         * Loads light from the nibbles read from a region
+         * file.
+         *
+         * @param bytes the light nibbles
+         * @return the light
+         */
+        public static Light read(byte[] bytes) {
+            if (bytes.length != LIGHT_BYTES) {
+                return FULL;
+            }
+
+            byte first = bytes[0];
+            boolean uniform = (first >> 4 & 0xF) == (first & 0xF);
+            for (int i = 1; uniform && i < bytes.length; i++) {
+                uniform = bytes[i] == first;
+            }
+
+            if (uniform) {
+                byte value = (byte) (first & 0xF);
+                return value == FULL.value ? FULL : new Light(null, value);
+            }
+
+            NibbleArray nibbles = new NibbleArray(LIGHT_BYTES);
+            nibbles.read(bytes);
+            return new Light(nibbles, (byte) 0);
+        }
+
+        /**
+         * Obtains the size of the light nibbles, which are
+         * not held if the light is uniform.
+         *
+         * @return the size in bytes
+         */
+        public int memoryUsage() {
+            return this.nibbles == null ? 0 : LIGHT_BYTES;
+        }
+
+        /**
+         * Obtains the byte holding two nibbles of the light
+         * value.
+         *
+         * @return the packed light value
+         */
+        private byte packed() {
+            return (byte) (this.value << 4 | this.value);
+        }
+
+        /**
+         * Writes the light nibbles to the given buffer.
+         *
+         * @param buf the buffer to write
+         */
+        public void write(ByteBuf buf) {
+            if (this.nibbles != null) {
+                this.nibbles.write(buf);
+                return;
+            }
+
+            byte packed = this.packed();
+            for (int i = 0; i < LIGHT_BYTES; i++) {
+                buf.writeByte(packed);
+            }
+        }
+
+        /**
+         * Writes the light nibbles to a new array.
+         *
+         * @return the light nibbles
+         */
+        public byte[] write() {
+            if (this.nibbles != null) {
+                return this.nibbles.write();
+            }
+
+            byte[] bytes = new byte[LIGHT_BYTES];
+            Arrays.fill(bytes, this.packed());
+            return bytes;
+        }
+    }
+}
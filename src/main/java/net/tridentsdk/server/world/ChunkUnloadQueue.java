@@ -0,0 +1,138 @@
+/*
+ * Trident - A Multithreaded Server Alternative
+ * Copyright 2017 The TridentSDK Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.tridentsdk.server.world;
+
+import net.tridentsdk.server.TridentServer;
+
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chunks of a world which are no longer referenced and are
+ * waiting to be unloaded.
+ *
+ * <p>A chunk is only unloaded once it has stayed
+ * unreferenced for the configured delay, so that a player
+ * walking back and forth across a chunk border does not
+ * unload and reload the same chunks. Referencing or
+ * requesting the chunk again cancels the unload.</p>
+ */
+@ThreadSafe
+public class ChunkUnloadQueue {
+    /**
+     * The delay before retrying an unload that could not
+     * be queued for saving
+     */
+    private static final long RETRY_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * The chunks waiting to be unloaded, ordered by the
+     * time at which they may be unloaded
+     */
+    private final DelayQueue<Entry> queue = new DelayQueue<>();
+
+    /**
+     * Schedules the given chunk to be unloaded after the
+     * configured delay.
+     *
+     * @param chunk the chunk to unload
+     */
+    public void schedule(TridentChunk chunk) {
+        long delay = TimeUnit.SECONDS.toNanos(TridentServer.cfg().chunkUnloadDelay());
+        this.schedule(chunk, delay);
+    }
+
+    /**
+     * Schedules the given chunk to be unloaded after the
+     * given delay, replacing any unload that was already
+     * scheduled.
+     *
+     * @param chunk the chunk to unload
+     * @param delayNanos the delay, in nanoseconds
+     */
+    private void schedule(TridentChunk chunk, long delayNanos) {
+        int generation = chunk.nextUnloadGeneration();
+        this.queue.add(new Entry(chunk, generation, System.nanoTime() + delayNanos));
+    }
+
+    /**
+     * Unloads the chunks whose delay has passed, up to the
+     * configured amount of chunks per tick.
+     */
+    public void tick() {
+        int budget = TridentServer.cfg().chunkUnloadsPerTick();
+        for (int i = 0; i < budget; ) {
+            Entry entry = this.queue.poll();
+            if (entry == null) {
+                break;
+            }
+
+            // Stale entries are from unloads which were
+            // cancelled or rescheduled
+            if (!entry.chunk.isUnloadGeneration(entry.generation)) {
+                continue;
+            }
+
+            if (!entry.chunk.unload(entry.generation)) {
+                // The save queue is full, so try again later
+                // instead of blocking the world tick
+                this.schedule(entry.chunk, RETRY_NANOS);
+            }
+            i++;
+        }
+    }
+
+    /**
+     * Obtains the amount of chunks waiting to be unloaded,
+     * including unloads which have been cancelled but not
+     * polled yet.
+     *
+     * @return the amount of waiting chunks
+     */
+    public int size() {
+        return this.queue.size();
+    }
+
+    /**
+     * A chunk waiting to be unloaded.
+     */
+    @Immutable
+    private static final class Entry implements Delayed {
+        private final TridentChunk chunk;
+        private final int generation;
+        private final long deadline;
+
+        public Entry(TridentChunk chunk, int generation, long deadline) {
+            this.chunk = chunk;
+            this.generation = generation;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(this.deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed o) {
+            return Long.compare(this.deadline, ((Entry) o).deadline);
+        }
+    }
+}
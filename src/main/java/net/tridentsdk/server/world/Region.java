@@ -17,14 +17,23 @@
 package net.tridentsdk.server.world;
 
 import lombok.Getter;
+import net.tridentsdk.server.util.ZlibPool;
 
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.ArrayList;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 import java.util.regex.Pattern;
+import java.util.zip.Deflater;
 import java.util.zip.DeflaterOutputStream;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.InflaterInputStream;
@@ -33,10 +42,19 @@ import java.util.zip.InflaterInputStream;
  * Represents a region file stored on file which maps out
  * the data in a chunk to be saved.
  *
- * We didn't write this file.
- * A few fields were removed to reduce memory footprint of
- * having this class.
+ * <p>The two header sectors (chunk offsets and timestamps)
+ * are memory mapped, and chunk data is accessed using
+ * positional reads and writes on the file channel. Reads
+ * do not lock: the offset table is read, the sectors are
+ * read and the slot is checked again to make sure that no
+ * writer republished the chunk in the meantime. Writers
+ * never overwrite live sectors, they only lock in order to
+ * allocate new sectors and to publish the new offset.</p>
+ *
+ * <p>The format handling was adapted from the reference
+ * region file implementation.</p>
  */
+@ThreadSafe
 public class Region {
     private static final Map<Path, Region> CACHE = new ConcurrentHashMap<>();
 
@@ -45,9 +63,14 @@ public class Region {
 
     private static final int SECTOR_BYTES = 4096;
     private static final int SECTOR_INTS = SECTOR_BYTES / 4;
+    private static final int HEADER_BYTES = SECTOR_BYTES * 2;
 
     private static final int CHUNK_HEADER_SIZE = 5;
-    private static final byte[] emptySector = new byte[4096];
+
+    /* sectors between two chunks which are read rather than seeked over */
+    private static final int MAX_GAP_SECTORS = 2;
+    /* the largest single read of a batch, 1MB */
+    private static final int MAX_RUN_SECTORS = 256;
 
     @Getter
     private final int regionX;
@@ -55,60 +78,64 @@ public class Region {
     private final int regionZ;
 
     private final Path path;
-    private final RandomAccessFile file;
-    private final int[] offsets;
-    private final ArrayList<Boolean> sectorFree;
+    private final FileChannel channel;
+    /**
+     * The mapped offset and timestamp sectors
+     */
+    @GuardedBy("lock")
+    private final MappedByteBuffer header;
+    /**
+     * The chunk offset table, readable without locking
+     */
+    private final AtomicIntegerArray offsets = new AtomicIntegerArray(SECTOR_INTS);
+    /**
+     * The number of times a chunk slot has been published,
+     * used by readers to detect that the sectors they read
+     * were reclaimed
+     */
+    private final AtomicIntegerArray stamps = new AtomicIntegerArray(SECTOR_INTS);
+    /**
+     * The lock held while sectors are allocated or freed
+     */
+    private final Object lock = new Object();
+    @GuardedBy("lock")
+    private final SectorAllocator sectors;
 
     private Region(Path path) {
         this.path = path;
-        this.offsets = new int[SECTOR_INTS];
 
         try {
-            if (!Files.exists(path)) {
-                Files.createFile(path);
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+            long size = this.channel.size();
+            if (size < HEADER_BYTES) {
+                /* we need to write the chunk offset and timestamp tables */
+                this.writeFully(ByteBuffer.allocate((int) (HEADER_BYTES - size)), size);
+                size = HEADER_BYTES;
             }
 
-            this.file = new RandomAccessFile(path.toFile(), "rw");
-
-            if (this.file.length() < SECTOR_BYTES) {
-                /* we need to write the chunk offset table */
-                for (int i = 0; i < SECTOR_INTS; i++) {
-                    this.file.writeInt(0);
-                }
-                // write another sector for the timestamp info
-                for (int i = 0; i < SECTOR_INTS; i++) {
-                    this.file.writeInt(0);
-                }
-            }
-
-            if ((this.file.length() & 0xfff) != 0) {
+            if ((size & 0xfff) != 0) {
                 /* the file size is not a multiple of 4KB, grow it */
-                for (int i = 0; i < (this.file.length() & 0xfff); ++i) {
-                    this.file.write((byte) 0);
-                }
+                this.writeFully(ByteBuffer.allocate((int) (SECTOR_BYTES - (size & 0xfff))), size);
+                size = this.channel.size();
             }
 
-            /* set up the available sector map */
-            int nSectors = (int) this.file.length() / SECTOR_BYTES;
-            this.sectorFree = new ArrayList<>(nSectors);
-
-            for (int i = 0; i < nSectors; i++) {
-                this.sectorFree.add(true);
-            }
+            this.header = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
 
-            this.sectorFree.set(0, false); // chunk offset table
-            this.sectorFree.set(1, false); // for the last modified info
+            /* set up the available sector map */
+            int nSectors = (int) (size / SECTOR_BYTES);
+            this.sectors = new SectorAllocator(nSectors);
+            this.sectors.reserve(0, 2); // chunk offset table and last modified info
 
-            this.file.seek(0);
             for (int i = 0; i < SECTOR_INTS; i++) {
-                int offset = this.file.readInt();
-                this.offsets[i] = offset;
-                if (offset != 0 && (offset >> 8) + (offset & 0xFF) <= this.sectorFree.size()) {
-                    for (int sectorNum = 0; sectorNum < (offset & 0xFF); ++sectorNum) {
-                        this.sectorFree.set((offset >> 8) + sectorNum, false);
-                    }
+                int offset = this.header.getInt(i << 2);
+                this.offsets.set(i, offset);
+                if (offset != 0 && (offset >> 8) + (offset & 0xFF) <= nSectors) {
+                    this.sectors.reserve(offset >> 8, offset & 0xFF);
                 }
             }
+            this.sectors.rebuild();
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -142,13 +169,106 @@ public class Region {
      * gets an (uncompressed) stream representing the chunk data returns null if
      * the chunk is not found or an error occurs
      */
-    public synchronized DataInputStream getChunkDataInputStream(int x, int z) {
+    public DataInputStream getChunkDataInputStream(int x, int z) {
         if (this.outOfBounds(x, z)) {
             return null;
         }
 
         try {
-            int offset = this.getOffset(x, z);
+            ChunkData data = this.read(x + (z << 5));
+            return data == null ? null : data.open();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /*
+     * reads the still compressed data of several chunks at once, in the order
+     * of the given region relative coordinates. the chunks are sorted by their
+     * sectors, and runs of sectors which are adjacent or separated by a small
+     * gap are read with a single positional read, so that loading an area does
+     * not seek back and forth in the file. chunks which are not on file are
+     * left null, and the data may be decompressed on any thread
+     */
+    public ChunkData[] readChunks(int[] xs, int[] zs) {
+        int count = xs.length;
+        ChunkData[] result = new ChunkData[count];
+        int[] stamps = new int[count];
+        int[] offsets = new int[count];
+
+        /* sort the chunks on file by their first sector */
+        long[] order = new long[count];
+        int found = 0;
+        for (int i = 0; i < count; i++) {
+            if (this.outOfBounds(xs[i], zs[i])) {
+                continue;
+            }
+
+            int idx = xs[i] + (zs[i] << 5);
+            stamps[i] = this.stamps.get(idx);
+            offsets[i] = this.offsets.get(idx);
+            if (offsets[i] != 0) {
+                order[found++] = (long) (offsets[i] >> 8) << 32 | i;
+            }
+        }
+        Arrays.sort(order, 0, found);
+
+        try {
+            int runStart = 0;
+            while (runStart < found) {
+                /* extend the run while the next chunk is close enough */
+                int first = offsets[(int) order[runStart]] >> 8;
+                int last = first + (offsets[(int) order[runStart]] & 0xFF);
+                int runEnd = runStart + 1;
+                while (runEnd < found) {
+                    int offset = offsets[(int) order[runEnd]];
+                    int sector = offset >> 8;
+                    int end = Math.max(last, sector + (offset & 0xFF));
+                    if (sector - last > MAX_GAP_SECTORS || end - first > MAX_RUN_SECTORS) {
+                        break;
+                    }
+
+                    last = end;
+                    runEnd++;
+                }
+
+                ByteBuffer buf = ByteBuffer.allocate((last - first) * SECTOR_BYTES);
+                this.readFully(buf, (long) first * SECTOR_BYTES);
+
+                for (int j = runStart; j < runEnd; j++) {
+                    int i = (int) order[j];
+                    int idx = xs[i] + (zs[i] << 5);
+
+                    // the sectors were freed and possibly reused
+                    // while they were being read, read it again
+                    if (this.stamps.get(idx) != stamps[i]) {
+                        result[i] = this.read(idx);
+                        continue;
+                    }
+
+                    int position = ((offsets[i] >> 8) - first) * SECTOR_BYTES;
+                    int limit = Math.min(buf.position(), position + (offsets[i] & 0xFF) * SECTOR_BYTES);
+                    result[i] = ChunkData.parse(buf.array(), position, limit);
+                }
+
+                runStart = runEnd;
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        return result;
+    }
+
+    /*
+     * reads the compressed data of the chunk at the given index, retrying if
+     * the chunk is rewritten during the read, or returns null if the chunk is
+     * not on file
+     */
+    private ChunkData read(int idx) throws IOException {
+        while (true) {
+            int stamp = this.stamps.get(idx);
+            int offset = this.offsets.get(idx);
             if (offset == 0) {
                 return null;
             }
@@ -156,40 +276,135 @@ public class Region {
             int sectorNumber = offset >> 8;
             int numSectors = offset & 0xFF;
 
-            if (sectorNumber + numSectors > this.sectorFree.size()) {
+            ByteBuffer buf = ByteBuffer.allocate(numSectors * SECTOR_BYTES);
+            this.readFully(buf, (long) sectorNumber * SECTOR_BYTES);
+
+            // the sectors were freed and possibly reused
+            // while they were being read, try again
+            if (this.stamps.get(idx) != stamp) {
+                continue;
+            }
+
+            return ChunkData.parse(buf.array(), 0, buf.position());
+        }
+    }
+
+    /*
+     * the compressed data of a chunk, which refers to the bytes that were read
+     * from the region file without copying them
+     */
+    public static final class ChunkData {
+        private final byte version;
+        private final byte[] bytes;
+        private final int offset;
+        private final int length;
+
+        private ChunkData(byte version, byte[] bytes, int offset, int length) {
+            this.version = version;
+            this.bytes = bytes;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        /*
+         * parses the chunk header at the given position of the read bytes,
+         * returns null if the header is invalid
+         */
+        private static ChunkData parse(byte[] bytes, int position, int limit) {
+            if (limit - position < CHUNK_HEADER_SIZE) {
                 return null;
             }
 
-            this.file.seek(sectorNumber * SECTOR_BYTES);
-            int length = this.file.readInt();
+            ByteBuffer buf = ByteBuffer.wrap(bytes, position, limit - position);
+            int length = buf.getInt();
+            if (length <= 0 || length > buf.remaining()) {
+                return null;
+            }
 
-            if (length > SECTOR_BYTES * numSectors) {
+            byte version = buf.get();
+            if (version != VERSION_GZIP && version != VERSION_DEFLATE) {
                 return null;
             }
 
-            byte version = this.file.readByte();
-            if (version == VERSION_GZIP) {
-                byte[] data = new byte[length - 1];
-                this.file.read(data);
-                return new DataInputStream(new GZIPInputStream(new ByteArrayInputStream(data)));
-            } else if (version == VERSION_DEFLATE) {
-                byte[] data = new byte[length - 1];
-                this.file.read(data);
-                return new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(data)));
+            return new ChunkData(version, bytes, position + CHUNK_HEADER_SIZE, length - 1);
+        }
+
+        /*
+         * opens an (uncompressed) stream of the chunk data, which must be
+         * closed to return the pooled inflater
+         */
+        public DataInputStream open() throws IOException {
+            if (this.version == VERSION_GZIP) {
+                ByteArrayInputStream data = new ByteArrayInputStream(this.bytes, this.offset, this.length);
+                return new DataInputStream(new GZIPInputStream(data));
             }
 
-            return null;
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+            ZlibPool.PooledInflater inflater = ZlibPool.inflater();
+            inflater.inflater().setInput(this.bytes, this.offset, this.length);
+            return new DataInputStream(new PooledInflaterStream(inflater));
         }
     }
 
+    /*
+     * compresses using a pooled deflater, which is returned to the pool when
+     * the stream is closed
+     */
     public DataOutputStream getChunkDataOutputStream(int x, int z) {
         if (this.outOfBounds(x, z)) {
             return null;
         }
 
-        return new DataOutputStream(new DeflaterOutputStream(new ChunkBuffer(x, z)));
+        return new DataOutputStream(new PooledDeflaterStream(new ChunkBuffer(x, z), ZlibPool.deflater(Deflater.DEFAULT_COMPRESSION)));
+    }
+
+    /*
+     * inflates the chunk data that has already been handed to the pooled
+     * inflater, which is returned to the pool when the stream is closed
+     */
+    private static class PooledInflaterStream extends InflaterInputStream {
+        private static final InputStream EMPTY = new ByteArrayInputStream(new byte[0]);
+
+        private final ZlibPool.PooledInflater inflater;
+        private boolean closed;
+
+        public PooledInflaterStream(ZlibPool.PooledInflater inflater) {
+            super(EMPTY, inflater.inflater(), 1);
+            this.inflater = inflater;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!this.closed) {
+                this.closed = true;
+                this.inflater.close();
+            }
+        }
+    }
+
+    /*
+     * deflates into the given stream using a pooled deflater, which is
+     * returned to the pool when the stream is closed
+     */
+    private static class PooledDeflaterStream extends DeflaterOutputStream {
+        private final ZlibPool.PooledDeflater deflater;
+        private boolean closed;
+
+        public PooledDeflaterStream(OutputStream out, ZlibPool.PooledDeflater deflater) {
+            super(out, deflater.deflater(), ZlibPool.BUFFER_SIZE);
+            this.deflater = deflater;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!this.closed) {
+                this.closed = true;
+                try {
+                    super.close();
+                } finally {
+                    this.deflater.close();
+                }
+            }
+        }
     }
 
     /*
@@ -213,111 +428,185 @@ public class Region {
     }
 
     /* write a chunk at (x,z) with length bytes of data to disk */
-    public synchronized void write(int x, int z, byte[] data, int length) {
+    public void write(int x, int z, byte[] data, int length) {
+        int sectorsNeeded = (length + CHUNK_HEADER_SIZE) / SECTOR_BYTES + 1;
+
+        // maximum chunk size is 1MB
+        if (sectorsNeeded >= 256) {
+            return;
+        }
+
+        /* the new sectors are never visible to readers until published */
+        int sectorNumber;
+        synchronized (this.lock) {
+            sectorNumber = this.sectors.allocate(sectorsNeeded);
+        }
+
         try {
-            int offset = this.getOffset(x, z);
-            int sectorNumber = offset >> 8;
-            int sectorsAllocated = offset & 0xFF;
-            int sectorsNeeded = (length + CHUNK_HEADER_SIZE) / SECTOR_BYTES + 1;
+            ByteBuffer buf = ByteBuffer.allocate(sectorsNeeded * SECTOR_BYTES);
+            buf.putInt(length + 1); // chunk length
+            buf.put((byte) VERSION_DEFLATE); // chunk version number
+            buf.put(data, 0, length); // chunk data
+            buf.clear(); // write the padding to the end of the sector
+
+            this.writeFully(buf, (long) sectorNumber * SECTOR_BYTES);
+        } catch (IOException e) {
+            synchronized (this.lock) {
+                this.sectors.free(sectorNumber, sectorsNeeded);
+            }
+            throw new RuntimeException(e);
+        }
+
+        synchronized (this.lock) {
+            this.publish(x + (z << 5), sectorNumber << 8 | sectorsNeeded, (int) (System.currentTimeMillis() / 1000L));
+        }
+    }
+
+    /*
+     * compresses chunk data using a pooled deflater into the given buffer
+     * instead of writing it on close, so that it can be handed to writeChunks
+     * along with the rest of a batch
+     */
+    public static DataOutputStream getCompressingStream(ByteArrayOutputStream out) {
+        return new DataOutputStream(new PooledDeflaterStream(out, ZlibPool.deflater(Deflater.DEFAULT_COMPRESSION)));
+    }
 
-            // maximum chunk size is 1MB
-            if (sectorsNeeded >= 256) {
-                return;
+    /*
+     * writes the compressed data of several chunks at once. the chunks are
+     * packed into runs of up to MAX_RUN_SECTORS sectors which are allocated
+     * under a single lock and each written with a single positional write,
+     * and the offsets of the whole batch are published together once all of
+     * the data is on file. chunks which are too large are skipped, as in write
+     */
+    public void writeChunks(int[] xs, int[] zs, byte[][] data) {
+        int count = xs.length;
+        int[] sectorsNeeded = new int[count];
+        int[] sectorNumbers = new int[count];
+        for (int i = 0; i < count; i++) {
+            int needed = (data[i].length + CHUNK_HEADER_SIZE) / SECTOR_BYTES + 1;
+            if (needed < 256 && !this.outOfBounds(xs[i], zs[i])) {
+                sectorsNeeded[i] = needed;
             }
+        }
 
-            if (sectorNumber != 0 && sectorsAllocated == sectorsNeeded) {
-                /* we can simply overwrite the old sectors */
-                this.write(sectorNumber, data, length);
-            } else {
-                /* we need to allocate new sectors */
+        /* run r spans the chunks runStarts[r] until runStarts[r + 1] */
+        int[] runStarts = new int[count + 1];
+        int[] runSectors = new int[count];
+        int runs = 0;
+        synchronized (this.lock) {
+            int i = 0;
+            while (i < count) {
+                int start = i;
+                int length = 0;
+                while (i < count && length + sectorsNeeded[i] <= MAX_RUN_SECTORS) {
+                    length += sectorsNeeded[i++];
+                }
 
-                /* mark the sectors previously used for this chunk as free */
-                for (int i = 0; i < sectorsAllocated; ++i) {
-                    this.sectorFree.set(sectorNumber + i, true);
+                int sector = length == 0 ? 0 : this.sectors.allocate(length);
+                for (int j = start; j < i; j++) {
+                    sectorNumbers[j] = sector;
+                    sector += sectorsNeeded[j];
                 }
 
-                /* scan for a free space large enough to store this chunk */
-                int runStart = this.sectorFree.indexOf(true);
-                int runLength = 0;
-                if (runStart != -1) {
-                    for (int i = runStart; i < this.sectorFree.size(); ++i) {
-                        if (runLength != 0) {
-                            if (this.sectorFree.get(i)) runLength++;
-                            else runLength = 0;
-                        } else if (this.sectorFree.get(i)) {
-                            runStart = i;
-                            runLength = 1;
-                        }
-                        if (runLength >= sectorsNeeded) {
-                            break;
-                        }
-                    }
+                runStarts[runs] = start;
+                runSectors[runs++] = length;
+            }
+            runStarts[runs] = count;
+        }
+
+        try {
+            for (int r = 0; r < runs; r++) {
+                if (runSectors[r] == 0) {
+                    continue;
                 }
 
-                if (runLength >= sectorsNeeded) {
-                    /* we found a free space large enough */
-                    sectorNumber = runStart;
-                    this.setOffset(x, z, sectorNumber << 8 | sectorsNeeded);
-                    for (int i = 0; i < sectorsNeeded; ++i) {
-                        this.sectorFree.set(sectorNumber + i, false);
-                    }
-                    this.write(sectorNumber, data, length);
-                } else {
-                    /*
-                     * no free space large enough found -- we need to grow the
-                     * file
-                     */
-                    this.file.seek(this.file.length());
-                    sectorNumber = this.sectorFree.size();
-                    for (int i = 0; i < sectorsNeeded; ++i) {
-                        this.file.write(emptySector);
-                        this.sectorFree.add(false);
+                int first = sectorNumbers[runStarts[r]];
+                ByteBuffer buf = ByteBuffer.allocate(runSectors[r] * SECTOR_BYTES);
+                for (int i = runStarts[r]; i < runStarts[r + 1]; i++) {
+                    if (sectorsNeeded[i] == 0) {
+                        continue;
                     }
 
-                    this.write(sectorNumber, data, length);
-                    this.setOffset(x, z, sectorNumber << 8 | sectorsNeeded);
+                    buf.position((sectorNumbers[i] - first) * SECTOR_BYTES);
+                    buf.putInt(data[i].length + 1); // chunk length
+                    buf.put((byte) VERSION_DEFLATE); // chunk version number
+                    buf.put(data[i]); // chunk data
                 }
+                buf.clear(); // write the padding to the end of the sector
+
+                this.writeFully(buf, (long) first * SECTOR_BYTES);
             }
-            this.setTimestamp(x, z, (int) (System.currentTimeMillis() / 1000L));
         } catch (IOException e) {
+            synchronized (this.lock) {
+                for (int r = 0; r < runs; r++) {
+                    if (runSectors[r] != 0) {
+                        this.sectors.free(sectorNumbers[runStarts[r]], runSectors[r]);
+                    }
+                }
+            }
             throw new RuntimeException(e);
         }
-    }
 
-    /* write a chunk data to the region file at specified sector number */
-    private void write(int sectorNumber, byte[] data, int length) throws IOException {
-        this.file.seek(sectorNumber << 12);
-        this.file.writeInt(length + 1); // chunk length
-        this.file.writeByte(VERSION_DEFLATE); // chunk version number
-        this.file.write(data, 0, length); // chunk data
+        int timestamp = (int) (System.currentTimeMillis() / 1000L);
+        synchronized (this.lock) {
+            for (int i = 0; i < count; i++) {
+                if (sectorsNeeded[i] != 0) {
+                    this.publish(xs[i] + (zs[i] << 5), sectorNumbers[i] << 8 | sectorsNeeded[i], timestamp);
+                }
+            }
+        }
     }
 
-    /* is this an invalid chunk coordinate? */
-    private boolean outOfBounds(int x, int z) {
-        return x < 0 || x >= 32 || z < 0 || z >= 32;
+    /*
+     * makes the written sectors visible to readers and frees the sectors
+     * which were previously used by the chunk, must hold the lock
+     */
+    @GuardedBy("lock")
+    private void publish(int idx, int offset, int timestamp) {
+        int old = this.offsets.get(idx);
+        this.offsets.set(idx, offset);
+        this.stamps.incrementAndGet(idx);
+
+        this.header.putInt(idx << 2, offset);
+        this.header.putInt(SECTOR_BYTES + (idx << 2), timestamp);
+
+        /* mark the sectors previously used for this chunk as free */
+        if (old != 0) {
+            this.sectors.free(old >> 8, old & 0xFF);
+        }
     }
 
-    private int getOffset(int x, int z) {
-        return this.offsets[x + (z << 5)];
+    /* reads until the buffer is full or the end of the file is reached */
+    private void readFully(ByteBuffer buf, long position) throws IOException {
+        while (buf.hasRemaining()) {
+            int read = this.channel.read(buf, position + buf.position());
+            if (read == -1) {
+                break;
+            }
+        }
     }
 
-    public boolean hasChunk(int x, int z) {
-        return this.getOffset(x, z) != 0;
+    /* writes the entire buffer at the given position */
+    private void writeFully(ByteBuffer buf, long position) throws IOException {
+        while (buf.hasRemaining()) {
+            this.channel.write(buf, position + buf.position());
+        }
     }
 
-    private void setOffset(int x, int z, int offset) throws IOException {
-        this.offsets[x + (z << 5)] = offset;
-        this.file.seek(x + (z << 5) << 2);
-        this.file.writeInt(offset);
+    /* is this an invalid chunk coordinate? */
+    private boolean outOfBounds(int x, int z) {
+        return x < 0 || x >= 32 || z < 0 || z >= 32;
     }
 
-    private void setTimestamp(int x, int z, int value) throws IOException {
-        this.file.seek(SECTOR_BYTES + (x + (z << 5) << 2));
-        this.file.writeInt(value);
+    public boolean hasChunk(int x, int z) {
+        return this.offsets.get(x + (z << 5)) != 0;
     }
 
     public void close() throws IOException {
         CACHE.remove(this.path);
-        this.file.close();
+        synchronized (this.lock) {
+            this.header.force();
+            this.channel.close();
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,250 @@
+/*
+ * Trident - A Multithreaded Server Alternative
+ * Copyright 2017 The TridentSDK Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.tridentsdk.server.world;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Keeps track of which sectors of a region file are in use
+ * and hands out runs of free sectors.
+ *
+ * <p>Used sectors are stored in a {@code long} bitset. The
+ * free runs between them are indexed by their start sector
+ * and by their length so that allocation is a best-fit
+ * lookup and freeing a run merges it with its free
+ * neighbors, both in logarithmic time.</p>
+ */
+@NotThreadSafe
+final class SectorAllocator {
+    /**
+     * The used sector bitset, 1 bit per sector
+     */
+    private long[] used;
+    /**
+     * The number of sectors currently spanned by the file
+     */
+    private int size;
+    /**
+     * Free runs mapped by start sector to run length
+     */
+    private final TreeMap<Integer, Integer> byStart = new TreeMap<>();
+    /**
+     * Free runs packed as {@code length << 32 | start} in
+     * order to find the smallest run that fits
+     */
+    private final TreeSet<Long> bySize = new TreeSet<>();
+
+    /**
+     * Creates a new allocator for a file which spans the
+     * given number of sectors, all of which are initially
+     * free.
+     *
+     * @param size the number of sectors in the file
+     */
+    SectorAllocator(int size) {
+        this.used = new long[Math.max(1, (size + 63) >>> 6)];
+        this.size = size;
+        this.rebuild();
+    }
+
+    /**
+     * Marks the given run of sectors as used while the
+     * file header is being read. {@link #rebuild()} must be
+     * called once all of the runs have been reserved.
+     *
+     * @param start the first sector
+     * @param count the amount of sectors
+     */
+    void reserve(int start, int count) {
+        this.mark(start, count, true);
+    }
+
+    /**
+     * Rebuilds the free run indexes from the used bitset.
+     */
+    void rebuild() {
+        this.byStart.clear();
+        this.bySize.clear();
+
+        int i = this.nextFree(0);
+        while (i < this.size) {
+            int end = this.nextUsed(i);
+            this.addRun(i, end - i);
+            i = this.nextFree(end);
+        }
+    }
+
+    /**
+     * Allocates a run of sectors, preferring the smallest
+     * free run which can hold it and growing the file when
+     * none exists.
+     *
+     * @param count the amount of sectors needed
+     * @return the first sector of the allocated run
+     */
+    int allocate(int count) {
+        Long fit = this.bySize.ceiling((long) count << 32);
+        int start;
+        if (fit != null) {
+            start = (int) (long) fit;
+            int length = (int) (fit >>> 32);
+            this.removeRun(start, length);
+            if (length > count) {
+                this.addRun(start + count, length - count);
+            }
+        } else {
+            // If the file ends with free sectors, grow into
+            // them instead of leaving a gap behind
+            Map.Entry<Integer, Integer> last = this.byStart.lastEntry();
+            if (last != null && last.getKey() + last.getValue() == this.size) {
+                start = last.getKey();
+                this.removeRun(start, last.getValue());
+            } else {
+                start = this.size;
+            }
+
+            this.size = start + count;
+            this.ensureCapacity(this.size);
+        }
+
+        this.mark(start, count, true);
+        return start;
+    }
+
+    /**
+     * Releases the given run of sectors and merges it with
+     * the adjacent free runs.
+     *
+     * @param start the first sector
+     * @param count the amount of sectors
+     */
+    void free(int start, int count) {
+        if (start + count > this.size) {
+            count = this.size - start;
+        }
+
+        if (count <= 0) {
+            return;
+        }
+
+        this.mark(start, count, false);
+
+        Map.Entry<Integer, Integer> before = this.byStart.lowerEntry(start);
+        if (before != null && before.getKey() + before.getValue() == start) {
+            this.removeRun(before.getKey(), before.getValue());
+            count += start - before.getKey();
+            start = before.getKey();
+        }
+
+        Integer after = this.byStart.get(start + count);
+        if (after != null) {
+            this.removeRun(start + count, after);
+            count += after;
+        }
+
+        this.addRun(start, count);
+    }
+
+    /**
+     * Determines whether the given sector is in use.
+     *
+     * @param sector the sector
+     * @return {@code true} if the sector is allocated
+     */
+    boolean isUsed(int sector) {
+        return sector < this.size && (this.used[sector >>> 6] & 1L << sector) != 0;
+    }
+
+    /**
+     * Obtains the number of sectors spanned by the file.
+     *
+     * @return the file size in sectors
+     */
+    int size() {
+        return this.size;
+    }
+
+    private void addRun(int start, int length) {
+        this.byStart.put(start, length);
+        this.bySize.add((long) length << 32 | start);
+    }
+
+    private void removeRun(int start, int length) {
+        this.byStart.remove(start);
+        this.bySize.remove((long) length << 32 | start);
+    }
+
+    private void mark(int start, int count, boolean value) {
+        this.ensureCapacity(start + count);
+        for (int i = start, end = start + count; i < end; i++) {
+            if (value) {
+                this.used[i >>> 6] |= 1L << i;
+            } else {
+                this.used[i >>> 6] &= ~(1L << i);
+            }
+        }
+    }
+
+    private void ensureCapacity(int sectors) {
+        int words = (sectors + 63) >>> 6;
+        if (words > this.used.length) {
+            this.used = Arrays.copyOf(this.used, Math.max(words, this.used.length << 1));
+        }
+    }
+
+    private int nextFree(int from) {
+        int word = from >>> 6;
+        if (word >= this.used.length) {
+            return this.size;
+        }
+
+        long bits = ~this.used[word] & -1L << from;
+        while (true) {
+            if (bits != 0) {
+                return Math.min(this.size, (word << 6) + Long.numberOfTrailingZeros(bits));
+            }
+
+            if (++word == this.used.length) {
+                return this.size;
+            }
+            bits = ~this.used[word];
+        }
+    }
+
+    private int nextUsed(int from) {
+        int word = from >>> 6;
+        if (word >= this.used.length) {
+            return this.size;
+        }
+
+        long bits = this.used[word] & -1L << from;
+        while (true) {
+            if (bits != 0) {
+                return Math.min(this.size, (word << 6) + Long.numberOfTrailingZeros(bits));
+            }
+
+            if (++word == this.used.length) {
+                return this.size;
+            }
+            bits = this.used[word];
+        }
+    }
+}
@@ -20,8 +20,6 @@ import lombok.Getter;
 import net.tridentsdk.base.Block;
 import net.tridentsdk.base.Position;
 import net.tridentsdk.base.Substance;
-import net.tridentsdk.server.packet.play.PlayOutBlockChange;
-import net.tridentsdk.server.player.RecipientSelector;
 
 import javax.annotation.concurrent.Immutable;
 
@@ -92,7 +90,7 @@ public final class TridentBlock implements Block {
         short state = (short) (substance.getId() << 4);
         chunk.set(this.relX, this.relY, this.relZ, state);
 
-        RecipientSelector.whoCanSee(chunk, null, new PlayOutBlockChange(this.position, state));
+        this.world.getBlockUpdates().add(chunk, this.relX, this.relY, this.relZ);
     }
 
     @Override
@@ -108,7 +106,7 @@ public final class TridentBlock implements Block {
         short state = (short) (substanceId << 4 | data & 0xF);
         chunk.set(this.relX, this.relY, this.relZ, state);
 
-        RecipientSelector.whoCanSee(chunk, null, new PlayOutBlockChange(this.position, state));
+        this.world.getBlockUpdates().add(chunk, this.relX, this.relY, this.relZ);
     }
 
     @Override
@@ -118,7 +116,7 @@ public final class TridentBlock implements Block {
         short state = (short) (substance.getId() << 4 | data & 0xF);
         chunk.set(this.relX, this.relY, this.relZ, state);
 
-        RecipientSelector.whoCanSee(chunk, null, new PlayOutBlockChange(this.position, state));
+        this.world.getBlockUpdates().add(chunk, this.relX, this.relY, this.relZ);
     }
 
     /**
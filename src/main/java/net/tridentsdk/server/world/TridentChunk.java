@@ -27,6 +27,7 @@ import net.tridentsdk.server.concurrent.PoolSpec;
 import net.tridentsdk.server.concurrent.ServerThreadPool;
 import net.tridentsdk.server.entity.TridentEntity;
 import net.tridentsdk.server.player.TridentPlayer;
+import net.tridentsdk.server.util.JiraExceptionCatcher;
 import net.tridentsdk.server.util.UncheckedCdl;
 import net.tridentsdk.server.world.gen.GeneratorContextImpl;
 import net.tridentsdk.world.Chunk;
@@ -37,13 +38,13 @@ import net.tridentsdk.world.opt.GenOpts;
 import javax.annotation.Nonnull;
 import javax.annotation.concurrent.ThreadSafe;
 import java.io.DataInputStream;
-import java.io.DataOutputStream;
 import java.io.IOException;
-import java.util.Collections;
-import java.util.Set;
+import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.*;
 import java.util.stream.Stream;
 
@@ -62,15 +63,58 @@ public class TridentChunk implements Chunk {
      * Thread pool used for default container generation
      */
     private static final ServerThreadPool DEFAULT_POOL = ServerThreadPool.forSpec(PoolSpec.PLUGINS);
+    /**
+     * Thread pool used for reading chunks from region files
+     */
+    private static final ServerThreadPool IO_POOL = ServerThreadPool.forSpec(PoolSpec.IO);
 
     private static final int USABLE = -1;
     private static final int TRANSITION = 0;
     private static final int UNUSABLE = 1;
+    /**
+     * The section mask which includes every section
+     */
+    private static final int ALL_SECTIONS = 0xFFFF;
+    /**
+     * Rough size of a chunk without its sections, mostly
+     * the height map and the sets of players and entities
+     */
+    private static final int CHUNK_OVERHEAD = 2048;
+    /**
+     * The least time between renewals of a scheduled unload
+     */
+    private static final long UNLOAD_RENEW_NANOS = TimeUnit.SECONDS.toNanos(1);
 
     /**
      * Whether or not this chunk is usable
      */
     private final AtomicInteger useState = new AtomicInteger(USABLE);
+    /**
+     * The amount of references keeping this chunk loaded,
+     * such as players who have the chunk loaded
+     */
+    private final AtomicInteger references = new AtomicInteger();
+    /**
+     * Whether this chunk is waiting in the world's unload
+     * queue
+     */
+    private final AtomicBoolean unloadScheduled = new AtomicBoolean();
+    /**
+     * The unload generation, incremented whenever an unload
+     * is scheduled or cancelled so that stale unloads are
+     * ignored
+     */
+    private final AtomicInteger unloadGeneration = new AtomicInteger();
+    /**
+     * The time at which the scheduled unload was last
+     * renewed
+     */
+    private volatile long unloadRenewed = System.nanoTime();
+    /**
+     * Whether this chunk has been looked up since the
+     * chunk cache last passed over it
+     */
+    private final AtomicBoolean accessed = new AtomicBoolean(true);
     /**
      * Whether or not this chunk is being generated
      */
@@ -80,6 +124,11 @@ public class TridentChunk implements Chunk {
      * generated yet.
      */
     private final UncheckedCdl ready = new UncheckedCdl(1);
+    /**
+     * The future completed alongside the ready latch, for
+     * callers which should not block on generation
+     */
+    private final CompletableFuture<TridentChunk> readyFuture = new CompletableFuture<>();
     /**
      * The world in which this chunk is located
      */
@@ -117,6 +166,16 @@ public class TridentChunk implements Chunk {
      * this chunk
      */
     private final LongAdder inhabited = new LongAdder();
+    /**
+     * The modification counter, incremented whenever the
+     * contents of the chunk change
+     */
+    private final AtomicLong modCount = new AtomicLong();
+    /**
+     * The value of the modification counter when this chunk
+     * was last written to its region file
+     */
+    private final AtomicLong savedCount = new AtomicLong();
 
     /**
      * The players that currently occupy this chunk
@@ -168,35 +227,184 @@ public class TridentChunk implements Chunk {
     }
 
     /**
-     * Generates the chunk.
+     * Generates the chunk, waiting until it is ready.
      */
     public void generate() {
+        this.generateAsync();
+        this.waitReady();
+    }
+
+    /**
+     * Loads the chunk from its region file, or generates it
+     * if it is not on file, without waiting for it to be
+     * ready.
+     *
+     * <p>Only the first call starts loading the chunk, so
+     * every caller shares the same future.</p>
+     *
+     * @return the future which completes once the chunk is
+     * ready
+     */
+    public CompletableFuture<TridentChunk> generateAsync() {
         if (!this.generationInProgress.compareAndSet(false, true)) {
+            return this.readyFuture;
+        }
+
+        CompletableFuture.supplyAsync(this::load, IO_POOL).thenAcceptAsync(this::finishLoad, ARBITRARY_POOL).
+                whenComplete((v, t) -> {
+                    if (t != null) {
+                        this.fail(t);
+                    }
+                });
+
+        return this.readyFuture;
+    }
+
+    /**
+     * Loads the given chunks from their region files, or
+     * generates the chunks which are not on file, without
+     * waiting for them to be ready.
+     *
+     * <p>Chunks in the same region file are read together
+     * in a single batch, and are then decompressed in
+     * parallel. Chunks which have already started loading
+     * are skipped.</p>
+     *
+     * @param chunks the chunks to load
+     */
+    static void generateAll(Collection<TridentChunk> chunks) {
+        List<TridentChunk> claimed = new ArrayList<>(chunks.size());
+        for (TridentChunk chunk : chunks) {
+            if (chunk.generationInProgress.compareAndSet(false, true)) {
+                claimed.add(chunk);
+            }
+        }
+
+        if (claimed.isEmpty()) {
             return;
         }
 
-        Region region = Region.getFile(this, false);
-        if (region == null) {
-            this.runGenerator();
-        } else {
-            int rX = this.x & 31;
-            int rZ = this.z & 31;
-            if (region.hasChunk(rX, rZ)) {
-                try (DataInputStream in = region.getChunkDataInputStream(rX, rZ)) {
-                    Tag.Compound compound = Tag.decode(in).getCompound("Level");
-                    CompletableFuture.runAsync(() -> this.read(compound), ARBITRARY_POOL).
-                            whenCompleteAsync((v, t) -> {
-                                if (this.ready.getCount() == 1) {
-                                    this.runGenerator();
-                                }
-                            }, ARBITRARY_POOL);
-                    this.waitReady();
+        IO_POOL.execute(() -> {
+            Map<Region, List<TridentChunk>> regions = new HashMap<>();
+            for (TridentChunk chunk : claimed) {
+                try {
+                    chunk.world.getSaveQueue().flush(chunk.x, chunk.z);
+
+                    Region region = Region.getFile(chunk, false);
+                    if (region == null || !region.hasChunk(chunk.x & 31, chunk.z & 31)) {
+                        chunk.decodeAsync(null);
+                    } else {
+                        regions.computeIfAbsent(region, k -> new ArrayList<>()).add(chunk);
+                    }
+                } catch (RuntimeException e) {
+                    chunk.fail(e);
+                }
+            }
+
+            regions.forEach((region, list) -> {
+                int[] xs = new int[list.size()];
+                int[] zs = new int[list.size()];
+                for (int i = 0; i < xs.length; i++) {
+                    xs[i] = list.get(i).x & 31;
+                    zs[i] = list.get(i).z & 31;
+                }
+
+                Region.ChunkData[] data;
+                try {
+                    data = region.readChunks(xs, zs);
+                } catch (RuntimeException e) {
+                    list.forEach(chunk -> chunk.fail(e));
+                    return;
+                }
+
+                for (int i = 0; i < data.length; i++) {
+                    TridentChunk chunk = list.get(i);
+                    if (data[i] == null) {
+                        // The chunk is on file, so missing data
+                        // means the data is corrupt
+                        chunk.fail(chunk.corrupt());
+                    } else {
+                        chunk.decodeAsync(data[i]);
+                    }
+                }
+            });
+        });
+    }
+
+    /**
+     * Decompresses and reads the given chunk data on the
+     * chunk thread pool, or generates the chunk if there is
+     * no data.
+     *
+     * @param data the data read from the region file, or
+     * {@code null} if the chunk is not on file
+     */
+    private void decodeAsync(Region.ChunkData data) {
+        CompletableFuture.runAsync(() -> {
+            Tag.Compound compound = null;
+            if (data != null) {
+                try (DataInputStream in = data.open()) {
+                    compound = Tag.decode(in).getCompound("Level");
                 } catch (IOException e) {
                     throw new RuntimeException(e);
                 }
-            } else {
-                this.runGenerator();
             }
+
+            this.finishLoad(compound);
+        }, ARBITRARY_POOL).whenComplete((v, t) -> {
+            if (t != null) {
+                this.fail(t);
+            }
+        });
+    }
+
+    /**
+     * Reads the data loaded from the region file, then
+     * generates whatever the data did not contain.
+     *
+     * @param compound the chunk data, or {@code null} if
+     * the chunk is not on file
+     */
+    private void finishLoad(Tag.Compound compound) {
+        if (compound != null) {
+            this.read(compound);
+        }
+
+        if (this.ready.getCount() == 1) {
+            this.runGenerator();
+        }
+    }
+
+    /**
+     * Reads the data of this chunk from its region file.
+     *
+     * @return the chunk data, or {@code null} if the chunk
+     * is not on file
+     */
+    private Tag.Compound load() {
+        // Make sure that an older copy of this chunk which
+        // is still waiting to be saved is on file first
+        this.world.getSaveQueue().flush(this.x, this.z);
+
+        Region region = Region.getFile(this, false);
+        if (region == null) {
+            return null;
+        }
+
+        int rX = this.x & 31;
+        int rZ = this.z & 31;
+        if (!region.hasChunk(rX, rZ)) {
+            return null;
+        }
+
+        try (DataInputStream in = region.getChunkDataInputStream(rX, rZ)) {
+            if (in == null) {
+                throw this.corrupt();
+            }
+
+            return Tag.decode(in).getCompound("Level");
+        } catch (IOException e) {
+            throw new RuntimeException(e);
         }
     }
 
@@ -247,11 +455,58 @@ public class TridentChunk implements Chunk {
             l.await();
             context.copySections(this.sections);
             context.copyHeights(this.heights);
+            this.compactSections();
 
-            this.ready.countDown();
-        }, container);
+            // Generated chunks are not on file yet
+            this.markDirty();
+            this.markReady();
+        }, container).whenComplete((v, t) -> {
+            if (t != null) {
+                this.fail(t);
+            }
+        });
+    }
 
-        this.waitReady();
+    /**
+     * Creates the exception thrown when the data of this
+     * chunk in its region file cannot be read.
+     *
+     * @return the exception
+     */
+    private IllegalStateException corrupt() {
+        return new IllegalStateException("Chunk " + this.x + ", " + this.z + " in world \"" +
+                this.world.getName() + "\" has corrupt region data");
+    }
+
+    /**
+     * Fails loading this chunk, removing it from the world
+     * so that a later request tries to load it again.
+     *
+     * <p>The chunk is never generated in place of data
+     * which failed to load, so that the data on file is not
+     * overwritten by the next save.</p>
+     *
+     * @param t the cause of the failure
+     */
+    private void fail(Throwable t) {
+        Throwable cause = t instanceof CompletionException && t.getCause() != null ? t.getCause() : t;
+        JiraExceptionCatcher.serverException(cause instanceof Exception ? (Exception) cause : new RuntimeException(cause));
+
+        this.useState.set(UNUSABLE);
+        this.world.getChunks().remove(this);
+        this.readyFuture.completeExceptionally(cause);
+    }
+
+    /**
+     * Marks this chunk as ready to be used.
+     */
+    private void markReady() {
+        this.ready.countDown();
+        this.readyFuture.complete(this);
+
+        // Chunks which nobody retained once they were ready
+        // still need to be unloaded eventually
+        this.checkValidForGc();
     }
 
     /**
@@ -261,8 +516,19 @@ public class TridentChunk implements Chunk {
      * @return the chunk, when ready
      */
     public TridentChunk waitReady() {
-        this.ready.await();
-        return this;
+        // Throws if the chunk failed to load, rather than
+        // waiting forever
+        return this.readyFuture.join();
+    }
+
+    /**
+     * Obtains the future which completes once this chunk
+     * has been loaded or generated.
+     *
+     * @return the ready future
+     */
+    public CompletableFuture<TridentChunk> whenReady() {
+        return this.readyFuture;
     }
 
     /**
@@ -274,6 +540,34 @@ public class TridentChunk implements Chunk {
      * is sent bottom to top
      */
     public void write(ByteBuf buf, boolean continuous) {
+        this.encode(buf, continuous, ALL_SECTIONS);
+    }
+
+    /**
+     * Writes only the given sections of the chunk to the
+     * given buffer for resending them to players who
+     * already have the chunk.
+     *
+     * @param buf the buffer to write the chunk data
+     * @param sectionMask the bit mask of the sections to
+     * write
+     */
+    public void writeSections(ByteBuf buf, int sectionMask) {
+        this.encode(buf, false, sectionMask);
+    }
+
+    /**
+     * Encodes the chunk data in the protocol format. Only
+     * the sections which have changed since they were last
+     * encoded are encoded again.
+     *
+     * @param buf the buffer to write the chunk data
+     * @param continuous {@code true} if the entire chunk
+     * is sent bottom to top
+     * @param sectionMask the bit mask of the sections which
+     * may be written
+     */
+    private void encode(ByteBuf buf, boolean continuous, int sectionMask) {
         int len = this.sections.length();
 
         // Copy chunk sections to local array in order to
@@ -284,7 +578,7 @@ public class TridentChunk implements Chunk {
             ChunkSection sec = this.sections.get(i);
             sections[i] = sec;
 
-            if (sec != null) {
+            if (sec != null && (sectionMask & 1 << i) != 0) {
                 mask |= 1 << i;
             }
         }
@@ -292,23 +586,23 @@ public class TridentChunk implements Chunk {
         // Write the continuous mask
         wvint(buf, mask);
 
-        // Write section data
-        ByteBuf chunkData = buf.alloc().buffer();
-        try {
-            for (int i = 0; i < len; i++) {
-                if ((mask & 1 << i) == 1 << i) {
-                    ChunkSection sec = sections[i];
-                    if (sec != null) {
-                        sec.write(chunkData);
-                    } else {
-                        this.emptyPlaceholder.write(chunkData);
-                    }
-                }
+        // Write the cached section encodings straight into
+        // the packet, after their combined length
+        byte[][] data = new byte[len][];
+        int dataLen = 0;
+        for (int i = 0; i < len; i++) {
+            if ((mask & 1 << i) == 1 << i) {
+                ChunkSection sec = sections[i];
+                data[i] = sec != null ? sec.encoded() : this.emptyPlaceholder.encoded();
+                dataLen += data[i].length;
+            }
+        }
+
+        wvint(buf, dataLen + (continuous ? 256 : 0));
+        for (byte[] sec : data) {
+            if (sec != null) {
+                buf.writeBytes(sec);
             }
-            wvint(buf, chunkData.readableBytes() + (continuous ? 256 : 0));
-            buf.writeBytes(chunkData);
-        } finally {
-            chunkData.release();
         }
 
         // If continuous, write the biome data
@@ -355,54 +649,277 @@ public class TridentChunk implements Chunk {
     }
 
     /**
-     * Updates the usability state field in order to check
-     * if this chunk may still be used or is reclaimable.
+     * Marks the contents of this chunk as changed, so that
+     * the next save will write it.
      */
-    public void checkValidForGc() {
-        this.useState.set(TRANSITION);
+    public void markDirty() {
+        this.modCount.incrementAndGet();
+    }
 
-        int centerX = this.world.getWorldOptions().getSpawn().getIntX() >> 4;
-        int centerZ = this.world.getWorldOptions().getSpawn().getIntZ() >> 4;
-        if (this.holders.isEmpty() && (Math.abs(centerX - this.x) > 3 || Math.abs(centerZ - this.z) > 3)) {
-            this.useState.set(UNUSABLE);
-
-            if (this.world.removeChunkAt(this.x, this.z) != null) {
-                Region region = Region.getFile(this, true);
-                int rX = this.x & 31;
-                int rZ = this.z & 31;
-                if (region.hasChunk(rX, rZ)) {
-                    try (DataInputStream in = region.getChunkDataInputStream(rX, rZ)) {
-                        Tag.Compound root = Tag.decode(in);
-                        Tag.Compound compound = root.getCompound("Level");
-                        CompletableFuture.runAsync(() -> this.write(compound), ARBITRARY_POOL).
-                                whenCompleteAsync((v, t) -> {
-                                    try (DataOutputStream out = region.getChunkDataOutputStream(rX, rZ)) {
-                                        root.write(out);
-                                    } catch (IOException e) {
-                                        throw new RuntimeException(e);
-                                    }
-                                }, ARBITRARY_POOL);
-                    } catch (IOException e) {
-                        throw new RuntimeException(e);
-                    }
-                } else {
-                    ARBITRARY_POOL.execute(() -> {
-                        Tag.Compound root = new Tag.Compound("");
-                        Tag.Compound level = new Tag.Compound("Level");
-                        root.putCompound(level);
-                        this.write(level);
-
-                        try (DataOutputStream out = region.getChunkDataOutputStream(rX, rZ)) {
-                            root.write(out);
-                        } catch (IOException e) {
-                            throw new RuntimeException(e);
-                        }
-                    });
-                }
+    /**
+     * Obtains the current value of the modification counter
+     * which should be passed to {@link #markSaved(long)}
+     * once the chunk has been written.
+     *
+     * @return the modification counter
+     */
+    public long getModCount() {
+        return this.modCount.get();
+    }
+
+    /**
+     * Records that the chunk was written to its region file
+     * with the contents it had at the given modification
+     * count.
+     *
+     * @param modCount the modification counter that was
+     * read before the chunk was serialized
+     */
+    public void markSaved(long modCount) {
+        long saved;
+        do {
+            saved = this.savedCount.get();
+            if (saved >= modCount) {
+                return;
             }
-        } else {
+        } while (!this.savedCount.compareAndSet(saved, modCount));
+    }
+
+    /**
+     * Determines whether this chunk has changed since it
+     * was last saved.
+     *
+     * @return {@code true} if the chunk needs to be saved
+     */
+    public boolean isDirty() {
+        return this.modCount.get() != this.savedCount.get();
+    }
+
+    /**
+     * Schedules this chunk to be unloaded if nothing
+     * references it and it is not a spawn chunk.
+     */
+    public void checkValidForGc() {
+        if (this.references.get() == 0 && !this.isSpawnChunk() &&
+                this.unloadScheduled.compareAndSet(false, true)) {
+            this.world.getUnloadQueue().schedule(this);
+        }
+    }
+
+    /**
+     * Adds a reference which keeps this chunk loaded, and
+     * cancels any unload waiting for this chunk.
+     */
+    public void retain() {
+        this.references.incrementAndGet();
+        this.cancelUnload();
+    }
+
+    /**
+     * Removes a reference added by {@link #retain()}, and
+     * schedules this chunk to be unloaded if it was the
+     * last one.
+     */
+    public void release() {
+        if (this.references.decrementAndGet() == 0) {
+            this.checkValidForGc();
+        }
+    }
+
+    /**
+     * Adds the given player to the players that have this
+     * chunk loaded, which keeps this chunk loaded.
+     *
+     * @param player the player
+     */
+    public void addHolder(TridentPlayer player) {
+        if (this.holders.add(player)) {
+            this.retain();
+        }
+    }
+
+    /**
+     * Removes the given player from the players that have
+     * this chunk loaded.
+     *
+     * @param player the player
+     */
+    public void removeHolder(TridentPlayer player) {
+        if (this.holders.remove(player)) {
+            this.release();
+        }
+    }
+
+    /**
+     * Cancels the unload waiting for this chunk, if there
+     * is one.
+     */
+    public void cancelUnload() {
+        if (this.unloadScheduled.compareAndSet(true, false)) {
+            this.unloadGeneration.incrementAndGet();
+        }
+    }
+
+    /**
+     * Restarts the delay of the unload waiting for this
+     * chunk, if there is one, so that a chunk which is
+     * still being looked up stays loaded.
+     */
+    public void renewUnload() {
+        if (!this.unloadScheduled.get()) {
+            return;
+        }
+
+        // Renewing adds another entry to the unload queue,
+        // so chunks looked up often only renew once in a
+        // while
+        long now = System.nanoTime();
+        if (now - this.unloadRenewed > UNLOAD_RENEW_NANOS) {
+            this.unloadRenewed = now;
+            this.world.getUnloadQueue().schedule(this);
+        }
+    }
+
+    /**
+     * Starts a new unload generation for an unload which
+     * is being scheduled.
+     *
+     * @return the generation of the scheduled unload
+     */
+    int nextUnloadGeneration() {
+        return this.unloadGeneration.incrementAndGet();
+    }
+
+    /**
+     * Checks whether an unload of the given generation is
+     * still the latest unload scheduled for this chunk.
+     *
+     * @param generation the unload generation
+     * @return {@code true} if the unload is still valid
+     */
+    boolean isUnloadGeneration(int generation) {
+        return this.unloadGeneration.get() == generation;
+    }
+
+    /**
+     * Unloads this chunk if the unload of the given
+     * generation was not cancelled and nothing references
+     * this chunk, queueing it to be saved first.
+     *
+     * @param generation the generation of the unload
+     * @return {@code false} if the save queue is full and
+     * the unload should be tried again later
+     */
+    boolean unload(int generation) {
+        if (!this.useState.compareAndSet(USABLE, TRANSITION)) {
+            return true;
+        }
+
+        // Lookups wait while the state is in transition,
+        // so cancelling after this point creates a new
+        // chunk which reads the queued save
+        if (this.references.get() > 0 || !this.isUnloadGeneration(generation)) {
             this.useState.set(USABLE);
+            return true;
         }
+
+        if (!this.world.getSaveQueue().offer(this)) {
+            this.useState.set(USABLE);
+            return false;
+        }
+
+        this.unloadScheduled.set(false);
+        this.useState.set(UNUSABLE);
+        this.world.getChunks().remove(this);
+        return true;
+    }
+
+    /**
+     * Unloads this chunk right away to free memory, unless
+     * it is still loading or referenced, queueing it to be
+     * saved first.
+     *
+     * @return {@code true} if the chunk was unloaded
+     */
+    boolean evict() {
+        if (!this.readyFuture.isDone() || this.isPinned()) {
+            return false;
+        }
+
+        if (!this.useState.compareAndSet(USABLE, TRANSITION)) {
+            return false;
+        }
+
+        if (this.references.get() > 0 || !this.world.getSaveQueue().offer(this)) {
+            this.useState.set(USABLE);
+            return false;
+        }
+
+        // Turns the unload waiting in the unload queue
+        // stale, if there is one
+        this.cancelUnload();
+        this.useState.set(UNUSABLE);
+        this.world.getChunks().remove(this);
+        return true;
+    }
+
+    /**
+     * Marks this chunk as recently used, which protects it
+     * from the next pass of the chunk cache.
+     */
+    void touch() {
+        this.accessed.lazySet(true);
+    }
+
+    /**
+     * Clears the recently used mark of this chunk.
+     *
+     * @return {@code true} if this chunk was used since the
+     * mark was last cleared
+     */
+    boolean clearAccessed() {
+        return this.accessed.getAndSet(false);
+    }
+
+    /**
+     * Checks whether this chunk may not be evicted from the
+     * chunk cache because it is referenced or is a spawn
+     * chunk.
+     *
+     * @return {@code true} if this chunk is pinned
+     */
+    boolean isPinned() {
+        return this.references.get() > 0 || this.isSpawnChunk();
+    }
+
+    /**
+     * Estimates the amount of memory held by this chunk and
+     * its sections.
+     *
+     * @return the estimated size in bytes
+     */
+    public long memoryUsage() {
+        long size = CHUNK_OVERHEAD;
+        for (int i = 0; i < this.sections.length(); i++) {
+            ChunkSection section = this.sections.get(i);
+            if (section != null) {
+                size += section.memoryUsage();
+            }
+        }
+
+        return size;
+    }
+
+    /**
+     * Checks whether this chunk is near the spawn of its
+     * world, which keeps it loaded.
+     *
+     * @return {@code true} if this is a spawn chunk
+     */
+    private boolean isSpawnChunk() {
+        int centerX = this.world.getWorldOptions().getSpawn().getIntX() >> 4;
+        int centerZ = this.world.getWorldOptions().getSpawn().getIntZ() >> 4;
+        return Math.abs(centerX - this.x) <= 3 && Math.abs(centerZ - this.z) <= 3;
     }
 
     /**
@@ -445,17 +962,7 @@ public class TridentChunk implements Chunk {
      * @param state The state of the block
      */
     public void set(int x, int y, int z, short state) {
-        int sectionIdx = y >> 4;
-
-        ChunkSection section = this.sections.get(sectionIdx);
-        if (section == null) {
-            ChunkSection newSec = new ChunkSection(this.world.getDimension() == Dimension.OVERWORLD);
-            if (this.sections.compareAndSet(sectionIdx, null, newSec)) {
-                section = newSec;
-            } else {
-                section = this.sections.get(sectionIdx);
-            }
-        }
+        ChunkSection section = this.sectionAt(y >> 4);
 
         int heightIdx = x << 4 | z & 0xF;
         int height;
@@ -477,6 +984,131 @@ public class TridentChunk implements Chunk {
         } while (!this.heights.compareAndSet(heightIdx, height, newHeight));
 
         section.set((y & 15) << 8 | z << 4 | x, state);
+        this.markDirty();
+    }
+
+    /**
+     * Sets every block in the given box, given in inclusive
+     * chunk relative coordinates, to the given block state.
+     *
+     * @param minX the lowest relative X
+     * @param minY the lowest Y
+     * @param minZ the lowest relative Z
+     * @param maxX the highest relative X
+     * @param maxY the highest Y
+     * @param maxZ the highest relative Z
+     * @param state the block state to set
+     */
+    public void fill(int minX, int minY, int minZ, int maxX, int maxY, int maxZ, short state) {
+        for (int sectionIdx = minY >> 4; sectionIdx <= maxY >> 4; sectionIdx++) {
+            int base = sectionIdx << 4;
+            int fromY = Math.max(minY, base) & 15;
+            int toY = Math.min(maxY, base + 15) & 15;
+
+            // Filling nonexistent sections with air does
+            // nothing
+            if (state == 0 && this.sections.get(sectionIdx) == null) {
+                continue;
+            }
+
+            this.sectionAt(sectionIdx).fill(minX, fromY, minZ, maxX, toY, maxZ, state);
+        }
+
+        this.markDirty();
+        this.updateHeights(minX, minZ, maxX, maxZ);
+    }
+
+    /**
+     * Applies the given edit to every block in the given
+     * box, given in inclusive chunk relative coordinates.
+     *
+     * @param minX the lowest relative X
+     * @param minY the lowest Y
+     * @param minZ the lowest relative Z
+     * @param maxX the highest relative X
+     * @param maxY the highest Y
+     * @param maxZ the highest relative Z
+     * @param edit the edit, which is passed the world
+     * coordinates of each block
+     * @return {@code true} if any block was changed
+     */
+    public boolean edit(int minX, int minY, int minZ, int maxX, int maxY, int maxZ, BlockEdit edit) {
+        boolean changed = false;
+        for (int sectionIdx = minY >> 4; sectionIdx <= maxY >> 4; sectionIdx++) {
+            int base = sectionIdx << 4;
+            int fromY = Math.max(minY, base) & 15;
+            int toY = Math.min(maxY, base + 15) & 15;
+
+            int offsetX = this.x << 4;
+            int offsetZ = this.z << 4;
+            BlockEdit sectionEdit = (x, y, z, state) -> edit.apply(offsetX + x, base + y, offsetZ + z, state);
+            changed |= this.sectionAt(sectionIdx).edit(minX, fromY, minZ, maxX, toY, maxZ, sectionEdit);
+        }
+
+        if (changed) {
+            this.markDirty();
+            this.updateHeights(minX, minZ, maxX, maxZ);
+        }
+        return changed;
+    }
+
+    /**
+     * Obtains the section at the given index, creating it
+     * if it does not exist yet.
+     *
+     * @param sectionIdx the section index
+     * @return the chunk section
+     */
+    private ChunkSection sectionAt(int sectionIdx) {
+        ChunkSection section = this.sections.get(sectionIdx);
+        if (section == null) {
+            ChunkSection newSec = new ChunkSection(this.world.getDimension() == Dimension.OVERWORLD);
+            if (this.sections.compareAndSet(sectionIdx, null, newSec)) {
+                section = newSec;
+            } else {
+                section = this.sections.get(sectionIdx);
+            }
+        }
+
+        return section;
+    }
+
+    /**
+     * Recalculates the highest block of each column in the
+     * given area after its blocks were replaced.
+     *
+     * @param minX the lowest relative X
+     * @param minZ the lowest relative Z
+     * @param maxX the highest relative X
+     * @param maxZ the highest relative Z
+     */
+    private void updateHeights(int minX, int minZ, int maxX, int maxZ) {
+        for (int x = minX; x <= maxX; x++) {
+            for (int z = minZ; z <= maxZ; z++) {
+                int height = 0;
+                for (int y = 255; y > 0; y--) {
+                    if (this.get(x, y, z) >> 4 != 0) {
+                        height = y;
+                        break;
+                    }
+                }
+
+                this.heights.set(x << 4 | z & 0xF, height);
+            }
+        }
+    }
+
+    /**
+     * Collapses the sections in this chunk which are made
+     * up of a single block state.
+     */
+    private void compactSections() {
+        for (int i = 0; i < this.sections.length(); i++) {
+            ChunkSection section = this.sections.get(i);
+            if (section != null) {
+                section.compact();
+            }
+        }
     }
 
     /**
@@ -491,6 +1123,7 @@ public class TridentChunk implements Chunk {
         for (Tag.Compound c : sectionList) {
             ChunkSection section = new ChunkSection(this.world.getDimension() == Dimension.OVERWORLD);
             section.read(c);
+            section.compact();
 
             byte y = c.getByte("Y");
             this.sections.set(y, section);
@@ -503,7 +1136,7 @@ public class TridentChunk implements Chunk {
 
         if (compound.getByte("TerrainPopulated") == 1) {
             this.generationInProgress.set(true);
-            this.ready.countDown();
+            this.markReady();
         }
     }
 
@@ -531,6 +1164,8 @@ public class TridentChunk implements Chunk {
         for (int i = 0; i < this.sections.length(); i++) {
             ChunkSection section = this.sections.get(i);
             if (section != null) {
+                section.compact();
+
                 Tag.Compound sectionCompound = new Tag.Compound("");
                 sectionCompound.putByte("Y", (byte) i);
                 section.write(sectionCompound);
@@ -545,4 +1180,4 @@ public class TridentChunk implements Chunk {
         }
         compound.putIntArray("HeightMap", heightMap);
     }
-}
\ No newline at end of file
+}
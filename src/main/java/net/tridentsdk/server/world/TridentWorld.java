@@ -43,9 +43,8 @@ import javax.annotation.concurrent.ThreadSafe;
 import java.io.*;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.Collection;
-import java.util.Collections;
-import java.util.Set;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.LongAdder;
@@ -78,6 +77,29 @@ public class TridentWorld implements World {
     // all chunks) before it is returned in WorldLoader
     @Getter
     private final ChunkMap chunks = new ChunkMap(this);
+    /**
+     * The queue of chunks waiting to be written to their
+     * region files
+     */
+    @Getter
+    private final ChunkSaveQueue saveQueue = new ChunkSaveQueue();
+    /**
+     * The blocks changed this tick which have not been sent
+     * to players yet
+     */
+    @Getter
+    private final BlockUpdateQueue blockUpdates = new BlockUpdateQueue(this);
+    /**
+     * The chunks which are no longer referenced and are
+     * waiting to be unloaded
+     */
+    @Getter
+    private final ChunkUnloadQueue unloadQueue = new ChunkUnloadQueue();
+    /**
+     * Evicts chunks when the loaded chunks hold too much
+     * memory
+     */
+    private final ChunkCache chunkCache = new ChunkCache(this);
     /**
      * Name of the world
      */
@@ -183,17 +205,37 @@ public class TridentWorld implements World {
     }
 
     /**
-     * Loads the chunks at spawn.
+     * Loads the chunks at spawn, waiting until all of them
+     * are ready.
      */
     public void loadSpawnChunks() {
+        this.loadSpawnChunksAsync().join();
+    }
+
+    /**
+     * Starts loading every chunk at spawn at once.
+     *
+     * @return the future which completes once every spawn
+     * chunk is ready
+     */
+    public CompletableFuture<Void> loadSpawnChunksAsync() {
         int centerX = this.worldOptions.getSpawn().getIntX() >> 4;
         int centerZ = this.worldOptions.getSpawn().getIntZ() >> 4;
         int radius = 3;
-        for (int x = centerX - radius; x < centerX + radius; x++) {
-            for (int z = centerZ - radius; z < centerZ + radius; z++) {
-                this.getChunkAt(x, z);
+        int side = 2 * radius + 1;
+
+        int[] xs = new int[side * side];
+        int[] zs = new int[side * side];
+        int i = 0;
+        for (int x = centerX - radius; x <= centerX + radius; x++) {
+            for (int z = centerZ - radius; z <= centerZ + radius; z++) {
+                xs[i] = x;
+                zs[i++] = z;
             }
         }
+
+        List<CompletableFuture<TridentChunk>> futures = this.getChunksAtAsync(xs, zs);
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[futures.size()]));
     }
 
     /**
@@ -228,6 +270,9 @@ public class TridentWorld implements World {
         this.border.tick();
 
         this.chunks.forEach(TridentChunk::tick);
+        this.blockUpdates.flush();
+        this.unloadQueue.tick();
+        this.chunkCache.tick();
     }
 
     @Override
@@ -257,6 +302,33 @@ public class TridentWorld implements World {
         return this.chunks.get(x, z, gen);
     }
 
+    /**
+     * Obtains the chunk at the given coordinates without
+     * waiting for it to be loaded or generated.
+     *
+     * @param x the chunk X coordinate
+     * @param z the chunk Z coordinate
+     * @return the future which completes once the chunk is
+     * ready
+     */
+    public CompletableFuture<TridentChunk> getChunkAtAsync(int x, int z) {
+        return this.chunks.getAsync(x, z);
+    }
+
+    /**
+     * Obtains futures of the chunks at the given
+     * coordinates, reading the chunks which are on file
+     * in batches per region file.
+     *
+     * @param xs the chunk X coordinates
+     * @param zs the chunk Z coordinates
+     * @return the futures of the chunks, in the order of
+     * the given coordinates
+     */
+    public List<CompletableFuture<TridentChunk>> getChunksAtAsync(int[] xs, int[] zs) {
+        return this.chunks.getAllAsync(xs, zs);
+    }
+
     @Override
     public Collection<? extends Chunk> getLoadedChunks() {
         return Collections.unmodifiableCollection(this.chunks.values());
@@ -291,8 +363,196 @@ public class TridentWorld implements World {
         return new TridentBlock(pos);
     }
 
+    /**
+     * Sets every block in the box between the given corners
+     * to the given block state.
+     *
+     * <p>Blocks are set a section at a time rather than one
+     * by one, and the changes are sent to players at the end
+     * of the tick.</p>
+     *
+     * @param x1 the X of the first corner
+     * @param y1 the Y of the first corner
+     * @param z1 the Z of the first corner
+     * @param x2 the X of the second corner
+     * @param y2 the Y of the second corner
+     * @param z2 the Z of the second corner
+     * @param state the block state to set
+     */
+    public void fill(int x1, int y1, int z1, int x2, int y2, int z2, short state) {
+        int minY = Math.max(0, Math.min(y1, y2));
+        int maxY = Math.min(255, Math.max(y1, y2));
+        if (minY > maxY) {
+            return;
+        }
+
+        this.editChunks(x1, z1, x2, z2, (chunk, minX, minZ, maxX, maxZ) -> {
+            chunk.fill(minX, minY, minZ, maxX, maxY, maxZ, state);
+            this.blockUpdates.addArea(chunk, minX, minY, minZ, maxX, maxY, maxZ);
+        });
+    }
+
+    /**
+     * Replaces every block in the box between the given
+     * corners that has the given block state with another
+     * block state.
+     *
+     * @param x1 the X of the first corner
+     * @param y1 the Y of the first corner
+     * @param z1 the Z of the first corner
+     * @param x2 the X of the second corner
+     * @param y2 the Y of the second corner
+     * @param z2 the Z of the second corner
+     * @param from the block state to replace
+     * @param to the block state to replace it with
+     */
+    public void replace(int x1, int y1, int z1, int x2, int y2, int z2, short from, short to) {
+        this.edit(x1, y1, z1, x2, y2, z2, (x, y, z, state) -> state == from ? to : state);
+    }
+
+    /**
+     * Copies the blocks in the box between the given
+     * corners so that the lowest corner of the copy is at
+     * the given destination.
+     *
+     * <p>The source blocks are read before any are set, so
+     * the source and the destination may overlap.</p>
+     *
+     * @param x1 the X of the first corner
+     * @param y1 the Y of the first corner
+     * @param z1 the Z of the first corner
+     * @param x2 the X of the second corner
+     * @param y2 the Y of the second corner
+     * @param z2 the Z of the second corner
+     * @param destX the lowest X of the destination
+     * @param destY the lowest Y of the destination
+     * @param destZ the lowest Z of the destination
+     */
+    public void copy(int x1, int y1, int z1, int x2, int y2, int z2, int destX, int destY, int destZ) {
+        int minX = Math.min(x1, x2);
+        int minY = Math.max(0, Math.min(y1, y2));
+        int minZ = Math.min(z1, z2);
+        int maxY = Math.min(255, Math.max(y1, y2));
+        int lenX = Math.max(x1, x2) - minX + 1;
+        int lenY = maxY - minY + 1;
+        int lenZ = Math.max(z1, z2) - minZ + 1;
+        if (lenY <= 0) {
+            return;
+        }
+
+        short[] blocks = new short[lenX * lenY * lenZ];
+        this.editChunks(x1, z1, x2, z2, (chunk, fromX, fromZ, toX, toZ) -> {
+            int baseX = (chunk.getX() << 4) - minX;
+            int baseZ = (chunk.getZ() << 4) - minZ;
+            for (int y = minY; y <= maxY; y++) {
+                for (int z = fromZ; z <= toZ; z++) {
+                    for (int x = fromX; x <= toX; x++) {
+                        int idx = ((y - minY) * lenZ + baseZ + z) * lenX + baseX + x;
+                        blocks[idx] = chunk.get(x, y, z);
+                    }
+                }
+            }
+        });
+
+        int offsetY = minY - destY;
+        this.edit(destX, destY, destZ, destX + lenX - 1, destY + lenY - 1, destZ + lenZ - 1, (x, y, z, state) -> {
+            int blockY = y + offsetY;
+            if (blockY < minY || blockY > maxY) {
+                return state;
+            }
+
+            return blocks[((blockY - minY) * lenZ + z - destZ) * lenX + x - destX];
+        });
+    }
+
+    /**
+     * Applies the given edit to every block in the box
+     * between the given corners.
+     *
+     * <p>Each section is locked once for all of the blocks
+     * in it that are edited, and only the blocks which were
+     * changed are sent to players at the end of the
+     * tick.</p>
+     *
+     * @param x1 the X of the first corner
+     * @param y1 the Y of the first corner
+     * @param z1 the Z of the first corner
+     * @param x2 the X of the second corner
+     * @param y2 the Y of the second corner
+     * @param z2 the Z of the second corner
+     * @param edit the edit to apply
+     */
+    public void edit(int x1, int y1, int z1, int x2, int y2, int z2, BlockEdit edit) {
+        int minY = Math.max(0, Math.min(y1, y2));
+        int maxY = Math.min(255, Math.max(y1, y2));
+        if (minY > maxY) {
+            return;
+        }
+
+        this.editChunks(x1, z1, x2, z2, (chunk, minX, minZ, maxX, maxZ) -> {
+            BitSet changed = new BitSet();
+            BlockEdit recordingEdit = (x, y, z, state) -> {
+                short newState = edit.apply(x, y, z, state);
+                if (newState != state) {
+                    changed.set(y << 8 | (z & 15) << 4 | x & 15);
+                }
+                return newState;
+            };
+
+            if (chunk.edit(minX, minY, minZ, maxX, maxY, maxZ, recordingEdit)) {
+                this.blockUpdates.addAll(chunk, changed);
+            }
+        });
+    }
+
+    /**
+     * Runs the given edit on each chunk that overlaps the
+     * area between the given corners.
+     *
+     * @param x1 the X of the first corner
+     * @param z1 the Z of the first corner
+     * @param x2 the X of the second corner
+     * @param z2 the Z of the second corner
+     * @param edit the edit to run on each chunk
+     */
+    private void editChunks(int x1, int z1, int x2, int z2, ChunkEdit edit) {
+        int minX = Math.min(x1, x2);
+        int minZ = Math.min(z1, z2);
+        int maxX = Math.max(x1, x2);
+        int maxZ = Math.max(z1, z2);
+
+        for (int cX = minX >> 4; cX <= maxX >> 4; cX++) {
+            for (int cZ = minZ >> 4; cZ <= maxZ >> 4; cZ++) {
+                int fromX = Math.max(minX, cX << 4) & 15;
+                int fromZ = Math.max(minZ, cZ << 4) & 15;
+                int toX = Math.min(maxX, (cX << 4) + 15) & 15;
+                int toZ = Math.min(maxZ, (cZ << 4) + 15) & 15;
+
+                edit.apply(this.getChunkAt(cX, cZ), fromX, fromZ, toX, toZ);
+            }
+        }
+    }
+
     @Override
     public void save() {
+        this.saveLevel();
+
+        // Copy out the chunks so that the chunk map is
+        // not locked while the queue applies
+        // backpressure
+        List<TridentChunk> chunks = new ArrayList<>();
+        this.chunks.forEach(chunks::add);
+        for (TridentChunk chunk : chunks) {
+            this.saveQueue.enqueue(chunk);
+        }
+        this.saveQueue.flush().join();
+    }
+
+    /**
+     * Writes the level.dat file for this world, creating
+     * the world directories if they do not yet exist.
+     */
+    public synchronized void saveLevel() {
         Path level = this.directory.resolve("level.dat");
         Path regionDir = this.directory.resolve("region");
         try {
@@ -322,21 +582,25 @@ public class TridentWorld implements World {
             try (GZIPOutputStream stream = new GZIPOutputStream(new FileOutputStream(level.toFile()))) {
                 worldRoot.write(new DataOutputStream(stream));
             }
-
-            this.chunks.forEach(c -> {
-                Region region = Region.getFile(c, true);
-                try (DataOutputStream out = region.getChunkDataOutputStream(c.getX() & 31, c.getZ() & 31)) {
-                    Tag.Compound rootChunk = new Tag.Compound("");
-                    Tag.Compound chunkData = new Tag.Compound("Level");
-                    c.write(chunkData);
-                    rootChunk.putCompound(chunkData);
-                    rootChunk.write(out);
-                } catch (IOException e) {
-                    throw new RuntimeException(e);
-                }
-            });
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * An edit of the blocks in one chunk.
+     */
+    @FunctionalInterface
+    private interface ChunkEdit {
+        /**
+         * Edits the blocks in the given area of the chunk.
+         *
+         * @param chunk the chunk to edit
+         * @param minX the lowest relative X
+         * @param minZ the lowest relative Z
+         * @param maxX the highest relative X
+         * @param maxZ the highest relative Z
+         */
+        void apply(TridentChunk chunk, int minX, int minZ, int maxX, int maxZ);
+    }
+}
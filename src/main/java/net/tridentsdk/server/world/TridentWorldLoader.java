@@ -19,6 +19,8 @@ package net.tridentsdk.server.world;
 import lombok.Getter;
 import net.tridentsdk.doc.Policy;
 import net.tridentsdk.logger.Logger;
+import net.tridentsdk.server.concurrent.PoolSpec;
+import net.tridentsdk.server.concurrent.ServerThreadPool;
 import net.tridentsdk.util.Misc;
 import net.tridentsdk.world.World;
 import net.tridentsdk.world.WorldLoader;
@@ -33,10 +35,10 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
-import java.util.Collection;
-import java.util.Collections;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  * The implementation of the TridentSDK world registry.
@@ -48,6 +50,10 @@ public class TridentWorldLoader implements WorldLoader {
      * The default world name
      */
     private static final String DEFAULT_WORLD_NAME = "world";
+    /**
+     * The thread pool which loads the worlds on startup
+     */
+    private static final ServerThreadPool WORLDS_POOL = ServerThreadPool.forSpec(PoolSpec.WORLDS);
 
     /**
      * The file visitor which removes all files under the
@@ -87,17 +93,19 @@ public class TridentWorldLoader implements WorldLoader {
      * Initializer method for the registry.
      *
      * <p>Loads all of the worlds on file, or creates a
-     * default world if it does not exist already.</p>
+     * default world if it does not exist already. The
+     * worlds are loaded in parallel.</p>
      */
     public void loadAll() {
+        List<Path> found = new ArrayList<>();
         try {
-            // try to walk the file tree and load the worlds
+            // try to walk the file tree and find the worlds
             Files.walkFileTree(Misc.HOME_PATH, new SimpleFileVisitor<Path>() {
                 @Override
                 public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
                     Path levelDat = dir.resolve("level.dat");
                     if (Files.exists(levelDat)) {
-                        TridentWorldLoader.this.load(dir.getFileName().toString(), dir, Dimension.OVERWORLD);
+                        found.add(dir);
                         return FileVisitResult.SKIP_SUBTREE;
                     }
 
@@ -108,6 +116,14 @@ public class TridentWorldLoader implements WorldLoader {
             throw new RuntimeException(e);
         }
 
+        CompletableFuture<?>[] loads = new CompletableFuture[found.size()];
+        for (int i = 0; i < loads.length; i++) {
+            Path dir = found.get(i);
+            loads[i] = CompletableFuture.runAsync(() ->
+                    this.load(dir.getFileName().toString(), dir, Dimension.OVERWORLD), WORLDS_POOL);
+        }
+        CompletableFuture.allOf(loads).join();
+
         // if the end up with no worlds or no default world
         // create a new world
         if (this.worlds.isEmpty() || !this.worlds.containsKey(DEFAULT_WORLD_NAME)) {
@@ -125,15 +141,28 @@ public class TridentWorldLoader implements WorldLoader {
     @Nonnull
     private TridentWorld load(String name, Path enclosing, Dimension dimension) {
         Logger.get(this.getClass()).log("Loading world \"" + name + "\"...");
+        long start = System.nanoTime();
         TridentWorld world = new TridentWorld(name, enclosing, dimension);
         world.loadSpawnChunks();
 
         this.worlds.put(name, world);
-        Logger.get(this.getClass()).log("Finished loading \"" + name + "\".");
+        Logger.get(this.getClass()).log("Finished loading \"" + name + "\" in " + elapsed(start) + "ms.");
 
         return world;
     }
 
+    /**
+     * Obtains the milliseconds which have passed since the
+     * given time.
+     *
+     * @param start the start time, from
+     * {@link System#nanoTime()}
+     * @return the elapsed milliseconds
+     */
+    private static long elapsed(long start) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
     @Override
     public Map<String, World> getWorlds() {
         return Collections.unmodifiableMap(this.worlds);
@@ -181,10 +210,11 @@ public class TridentWorldLoader implements WorldLoader {
            }
 
             Logger.get(this.getClass()).log("Creating world \"" + name + "\"...");
+            long start = System.nanoTime();
             TridentWorld world = new TridentWorld(name, Misc.HOME_PATH.resolve(name), spec);
             world.loadSpawnChunks();
             world.save();
-            Logger.get(this.getClass()).log("Finished creating \"" + name + "\".");
+            Logger.get(this.getClass()).log("Finished creating \"" + name + "\" in " + elapsed(start) + "ms.");
             return world;
         });
     }
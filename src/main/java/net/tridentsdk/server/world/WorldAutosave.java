@@ -0,0 +1,270 @@
+/*
+ * Trident - A Multithreaded Server Alternative
+ * Copyright 2017 The TridentSDK Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.tridentsdk.server.world;
+
+import lombok.Getter;
+import net.tridentsdk.logger.Logger;
+import net.tridentsdk.server.TridentServer;
+import net.tridentsdk.server.concurrent.PoolSpec;
+import net.tridentsdk.server.concurrent.ServerThreadPool;
+import net.tridentsdk.server.util.ZlibPool;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Periodically saves the loaded worlds by spreading the
+ * changed chunks over many ticks instead of stalling a
+ * single one.
+ *
+ * <p>Each autosave takes a snapshot of the loaded chunks
+ * and then, every tick, hands a budget of changed chunks to
+ * the owning world's {@link ChunkSaveQueue}, taking turns
+ * between worlds. The budget grows while ticks finish
+ * early and shrinks when the server runs behind.</p>
+ *
+ * <p>This class is only used by the tick thread.</p>
+ */
+@NotThreadSafe
+public final class WorldAutosave {
+    /**
+     * The logger used to report autosave progress
+     */
+    private static final Logger LOGGER = Logger.get(WorldAutosave.class);
+    /**
+     * The pool used to write the world level data
+     */
+    private static final ServerThreadPool IO = ServerThreadPool.forSpec(PoolSpec.IO);
+    /**
+     * The amount of ticks in one second
+     */
+    private static final int TICKS_PER_SECOND = 20;
+    /**
+     * The leftover tick time, in milliseconds, above which
+     * the chunk budget is raised
+     */
+    private static final long SPARE_MILLIS = 25;
+    /**
+     * The largest multiple of the configured budget that can
+     * be queued in a single tick
+     */
+    private static final int MAX_BUDGET_FACTOR = 8;
+    /**
+     * The amount of unchanged chunks that may be skipped for
+     * each chunk in the budget
+     */
+    private static final int SCAN_FACTOR = 8;
+
+    @Getter
+    private static final WorldAutosave instance = new WorldAutosave();
+
+    /**
+     * The remaining chunks of each world in the current
+     * autosave, empty between autosaves
+     */
+    private final List<Cursor> cursors = new ArrayList<>();
+    /**
+     * The index of the world whose turn it is
+     */
+    private int turn;
+    /**
+     * The ticks until the next autosave starts, or -1 if
+     * the countdown has not been started
+     */
+    private long countdown = -1;
+    /**
+     * The amount of changed chunks that may be queued this
+     * tick
+     */
+    private int budget;
+
+    /**
+     * The amount of chunks in the current autosave
+     */
+    private int total;
+    /**
+     * The amount of chunks looked at so far
+     */
+    private int scanned;
+    /**
+     * The amount of chunks queued for writing so far
+     */
+    private int queued;
+    /**
+     * The ticks spent on the current autosave
+     */
+    private int ticks;
+    /**
+     * The last progress percentage that was reported
+     */
+    private int reported;
+    /**
+     * The time at which the current autosave started
+     */
+    private long startTime;
+
+    private WorldAutosave() {
+    }
+
+    /**
+     * Performs the autosave work for this tick.
+     *
+     * @param leftover the milliseconds left in the current
+     * tick, negative if the tick ran over
+     */
+    public void tick(long leftover) {
+        int interval = TridentServer.cfg().autosaveInterval();
+        if (interval <= 0) {
+            this.cursors.clear();
+            this.countdown = -1;
+            return;
+        }
+
+        if (this.cursors.isEmpty()) {
+            if (this.countdown < 0) {
+                this.countdown = (long) interval * TICKS_PER_SECOND;
+            }
+
+            if (--this.countdown > 0) {
+                return;
+            }
+
+            this.countdown = (long) interval * TICKS_PER_SECOND;
+            this.begin();
+        }
+
+        this.adjustBudget(leftover);
+        this.ticks++;
+
+        int budget = this.budget;
+        int scans = budget * SCAN_FACTOR;
+        while (budget > 0 && scans > 0 && !this.cursors.isEmpty()) {
+            if (this.turn >= this.cursors.size()) {
+                this.turn = 0;
+            }
+
+            Cursor cursor = this.cursors.get(this.turn);
+            if (cursor.index == cursor.chunks.size()) {
+                this.cursors.remove(this.turn);
+                continue;
+            }
+
+            TridentChunk chunk = cursor.chunks.get(cursor.index);
+            if (chunk.isDirty()) {
+                if (!cursor.world.getSaveQueue().offer(chunk)) {
+                    // The queue is full, try again next tick
+                    // with a smaller budget
+                    this.budget = Math.max(1, this.budget / 2);
+                    break;
+                }
+
+                this.queued++;
+                budget--;
+            }
+
+            cursor.index++;
+            this.scanned++;
+            scans--;
+            this.turn++;
+        }
+
+        this.report();
+    }
+
+    /**
+     * Starts a new autosave by taking a snapshot of the
+     * chunks in each loaded world.
+     */
+    private void begin() {
+        this.turn = 0;
+        this.total = 0;
+        this.scanned = 0;
+        this.queued = 0;
+        this.ticks = 0;
+        this.reported = 0;
+        this.budget = 0;
+        this.startTime = System.currentTimeMillis();
+
+        for (TridentWorld world : TridentWorldLoader.getInstance().worlds()) {
+            IO.execute(world::saveLevel);
+
+            List<TridentChunk> chunks = new ArrayList<>();
+            world.getChunks().forEach(chunks::add);
+            if (!chunks.isEmpty()) {
+                this.cursors.add(new Cursor(world, chunks));
+                this.total += chunks.size();
+            }
+        }
+
+        LOGGER.debug("Autosave started for " + this.total + " chunks");
+    }
+
+    /**
+     * Raises the chunk budget if the tick finished early and
+     * lowers it if the server is running behind.
+     *
+     * @param leftover the milliseconds left in the tick
+     */
+    private void adjustBudget(long leftover) {
+        int base = Math.max(1, TridentServer.cfg().autosaveChunksPerTick());
+        if (this.budget == 0) {
+            this.budget = base;
+        } else if (leftover <= 0) {
+            this.budget = Math.max(1, this.budget / 2);
+        } else if (leftover >= SPARE_MILLIS) {
+            this.budget = Math.min(base * MAX_BUDGET_FACTOR, this.budget * 2);
+        } else if (this.budget < base) {
+            this.budget++;
+        }
+    }
+
+    /**
+     * Logs the progress of the autosave every quarter, and
+     * once the last chunk has been queued.
+     */
+    private void report() {
+        if (this.cursors.isEmpty()) {
+            LOGGER.log("Autosave queued " + this.queued + " of " + this.total +
+                    " chunks over " + this.ticks + " ticks (" +
+                    (System.currentTimeMillis() - this.startTime) + "ms)");
+            LOGGER.debug(ZlibPool.stats());
+            return;
+        }
+
+        int percent = this.scanned * 100 / this.total;
+        if (percent >= this.reported + 25) {
+            this.reported = percent - percent % 25;
+            LOGGER.debug("Autosave " + this.reported + "% complete, " +
+                    this.queued + " chunks queued, budget " + this.budget + " chunks/tick");
+        }
+    }
+
+    /**
+     * The position of the autosave in a world's chunks.
+     */
+    private static final class Cursor {
+        private final TridentWorld world;
+        private final List<TridentChunk> chunks;
+        private int index;
+
+        public Cursor(TridentWorld world, List<TridentChunk> chunks) {
+            this.world = world;
+            this.chunks = chunks;
+        }
+    }
+}
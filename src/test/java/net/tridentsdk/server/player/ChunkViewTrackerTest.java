@@ -0,0 +1,128 @@
+/*
+ * Trident - A Multithreaded Server Alternative
+ * Copyright 2017 The TridentSDK Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.tridentsdk.server.player;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the chunks entering the view of a player against
+ * the difference of the whole old and new views.
+ *
+ * <p>No chunks are held, so every chunk in view stays
+ * pending, and the chunks entering the view after a move
+ * are exactly the chunks in the new view that were not in
+ * the old one.</p>
+ */
+public class ChunkViewTrackerTest {
+    private static final int RADIUS = 3;
+
+    private static Set<Long> view(int centerX, int centerZ) {
+        Set<Long> keys = new HashSet<>();
+        for (int x = centerX - RADIUS; x <= centerX + RADIUS; x++) {
+            for (int z = centerZ - RADIUS; z <= centerZ + RADIUS; z++) {
+                keys.add(ChunkViewTracker.key(x, z));
+            }
+        }
+
+        return keys;
+    }
+
+    private static void checkMove(ChunkViewTracker tracker, int oldX, int oldZ, int newX, int newZ) {
+        long[] entering = tracker.move(null, newX, newZ, RADIUS).getEntering();
+
+        Set<Long> expected = view(newX, newZ);
+        expected.removeAll(view(oldX, oldZ));
+
+        Set<Long> actual = new HashSet<>();
+        int lastRing = 0;
+        for (long key : entering) {
+            assertTrue("duplicate chunk", actual.add(key));
+
+            int ring = Math.max(Math.abs(ChunkViewTracker.keyX(key) - newX),
+                    Math.abs(ChunkViewTracker.keyZ(key) - newZ));
+            assertTrue("chunks are not closest first", ring >= lastRing);
+            lastRing = ring;
+        }
+        assertEquals(expected, actual);
+    }
+
+    private static ChunkViewTracker start(int x, int z) {
+        ChunkViewTracker tracker = new ChunkViewTracker();
+        long[] entering = tracker.move(null, x, z, RADIUS).getEntering();
+        assertEquals((2 * RADIUS + 1) * (2 * RADIUS + 1), entering.length);
+        return tracker;
+    }
+
+    @Test
+    public void straightMove() {
+        ChunkViewTracker tracker = start(0, 0);
+        checkMove(tracker, 0, 0, 1, 0);
+        checkMove(tracker, 1, 0, 1, -1);
+    }
+
+    @Test
+    public void diagonalMove() {
+        ChunkViewTracker tracker = start(0, 0);
+        checkMove(tracker, 0, 0, 1, 1);
+        checkMove(tracker, 1, 1, -1, 3);
+        checkMove(tracker, -1, 3, 2, 0);
+    }
+
+    @Test
+    public void moveLargerThanRadius() {
+        ChunkViewTracker tracker = start(0, 0);
+        checkMove(tracker, 0, 0, 2 * RADIUS + 1, 0);
+        checkMove(tracker, 2 * RADIUS + 1, 0, -20, 35);
+    }
+
+    @Test
+    public void moveBack() {
+        // The chunks which left the view are no longer
+        // pending, so moving back loads them again
+        ChunkViewTracker tracker = start(0, 0);
+        checkMove(tracker, 0, 0, 2, 1);
+        checkMove(tracker, 2, 1, 0, 0);
+    }
+
+    @Test
+    public void noMove() {
+        ChunkViewTracker tracker = start(5, 5);
+        assertEquals(0, tracker.move(null, 5, 5, RADIUS).getEntering().length);
+    }
+
+    @Test
+    public void randomMoves() {
+        Random random = new Random(42);
+        int x = 0;
+        int z = 0;
+        ChunkViewTracker tracker = start(x, z);
+        for (int i = 0; i < 500; i++) {
+            int newX = x + random.nextInt(4 * RADIUS + 3) - 2 * RADIUS - 1;
+            int newZ = z + random.nextInt(4 * RADIUS + 3) - 2 * RADIUS - 1;
+            checkMove(tracker, x, z, newX, newZ);
+            x = newX;
+            z = newZ;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Trident - A Multithreaded Server Alternative
+ * Copyright 2017 The TridentSDK Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.tridentsdk.server.world;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ChunkSectionTest {
+    private static final int BLOCKS = 4096;
+
+    private static short state(int id) {
+        return (short) (id << 4);
+    }
+
+    @Test
+    public void startsAsSingleState() {
+        ChunkSection section = new ChunkSection(true);
+        assertEquals(0, section.bitsPerBlock());
+        assertEquals(0, section.dataAt(123));
+    }
+
+    @Test
+    public void growsToGlobalStorage() {
+        ChunkSection section = new ChunkSection(true);
+        section.set(0, state(1));
+        assertEquals(4, section.bitsPerBlock());
+
+        for (int i = 0; i < 17; i++) {
+            section.set(i, state(i + 1));
+        }
+        assertEquals(5, section.bitsPerBlock());
+
+        for (int i = 0; i < 300; i++) {
+            section.set(i, state(i + 1));
+        }
+        assertEquals(13, section.bitsPerBlock());
+
+        for (int i = 0; i < 300; i++) {
+            assertEquals(state(i + 1), section.dataAt(i));
+        }
+        assertEquals(0, section.dataAt(300));
+    }
+
+    @Test
+    public void compactsGlobalStorageBack() {
+        ChunkSection section = new ChunkSection(true);
+        for (int i = 0; i < 300; i++) {
+            section.set(i, state(i + 1));
+        }
+        for (int i = 0; i < BLOCKS; i++) {
+            section.set(i, state(i % 3));
+        }
+        assertEquals(13, section.bitsPerBlock());
+
+        assertTrue(section.compact());
+        assertEquals(4, section.bitsPerBlock());
+        for (int i = 0; i < BLOCKS; i++) {
+            assertEquals(state(i % 3), section.dataAt(i));
+        }
+        assertFalse(section.compact());
+    }
+
+    @Test
+    public void compactsToSingleState() {
+        ChunkSection section = new ChunkSection(true);
+        for (int i = 0; i < 40; i++) {
+            section.set(i, state(i + 1));
+        }
+        for (int i = 0; i < BLOCKS; i++) {
+            section.set(i, state(7));
+        }
+
+        assertTrue(section.compact());
+        assertEquals(0, section.bitsPerBlock());
+        assertEquals(state(7), section.dataAt(BLOCKS - 1));
+    }
+
+    @Test
+    public void reclaimsUnusedPaletteEntries() {
+        // Only two states are ever in the section at once,
+        // so the palette never needs more than 4 bits
+        ChunkSection section = new ChunkSection(true);
+        for (int i = 1; i <= 1000; i++) {
+            section.set(42, state(i));
+            assertEquals(4, section.bitsPerBlock());
+        }
+        assertEquals(state(1000), section.dataAt(42));
+        assertEquals(0, section.dataAt(41));
+    }
+
+    @Test
+    public void fillReclaimsPaletteEntries() {
+        ChunkSection section = new ChunkSection(true);
+        for (int i = 1; i <= 100; i++) {
+            section.fill(0, 0, 0, 15, 7, 15, state(i));
+        }
+        assertEquals(4, section.bitsPerBlock());
+        assertEquals(state(100), section.dataAt(0));
+        assertEquals(0, section.dataAt(BLOCKS - 1));
+    }
+}
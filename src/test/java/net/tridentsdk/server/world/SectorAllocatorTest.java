@@ -0,0 +1,129 @@
+/*
+ * Trident - A Multithreaded Server Alternative
+ * Copyright 2017 The TridentSDK Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.tridentsdk.server.world;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SectorAllocatorTest {
+    /**
+     * Creates an allocator for a file whose sectors are all
+     * in use.
+     */
+    private static SectorAllocator full(int size) {
+        SectorAllocator allocator = new SectorAllocator(size);
+        allocator.reserve(0, size);
+        allocator.rebuild();
+        return allocator;
+    }
+
+    @Test
+    public void growsWhenFull() {
+        SectorAllocator allocator = full(2);
+        assertEquals(2, allocator.allocate(3));
+        assertEquals(5, allocator.size());
+        assertTrue(allocator.isUsed(4));
+        assertFalse(allocator.isUsed(5));
+    }
+
+    @Test
+    public void growsIntoTrailingFreeSectors() {
+        SectorAllocator allocator = new SectorAllocator(10);
+        allocator.reserve(0, 8);
+        allocator.rebuild();
+
+        assertEquals(8, allocator.allocate(5));
+        assertEquals(13, allocator.size());
+    }
+
+    @Test
+    public void bestFit() {
+        SectorAllocator allocator = full(20);
+        allocator.free(2, 3);
+        allocator.free(8, 1);
+        allocator.free(12, 2);
+
+        assertEquals(12, allocator.allocate(2));
+        assertEquals(8, allocator.allocate(1));
+        assertEquals(2, allocator.allocate(3));
+        assertEquals(20, allocator.allocate(1));
+    }
+
+    @Test
+    public void splitsLargerRun() {
+        SectorAllocator allocator = full(20);
+        allocator.free(4, 5);
+
+        assertEquals(4, allocator.allocate(2));
+        assertEquals(6, allocator.allocate(3));
+        assertEquals(20, allocator.allocate(1));
+    }
+
+    @Test
+    public void freeCoalescesBothSides() {
+        SectorAllocator allocator = full(10);
+        allocator.free(2, 2);
+        allocator.free(6, 2);
+        allocator.free(4, 2);
+
+        assertEquals(2, allocator.allocate(6));
+        assertEquals(10, allocator.size());
+        for (int i = 2; i < 8; i++) {
+            assertTrue(allocator.isUsed(i));
+        }
+    }
+
+    @Test
+    public void freeCoalescesWithAllocatedRuns() {
+        SectorAllocator allocator = full(2);
+        int a = allocator.allocate(1);
+        int b = allocator.allocate(2);
+        int c = allocator.allocate(1);
+        allocator.allocate(1);
+
+        allocator.free(b, 2);
+        allocator.free(a, 1);
+        allocator.free(c, 1);
+        assertEquals(a, allocator.allocate(4));
+        assertEquals(7, allocator.size());
+    }
+
+    @Test
+    public void freePastEndIsClamped() {
+        SectorAllocator allocator = full(4);
+        allocator.free(3, 10);
+
+        assertFalse(allocator.isUsed(3));
+        assertEquals(4, allocator.size());
+        assertEquals(3, allocator.allocate(1));
+    }
+
+    @Test
+    public void rebuildFindsFreeRuns() {
+        SectorAllocator allocator = new SectorAllocator(200);
+        allocator.reserve(0, 2);
+        allocator.reserve(70, 60);
+        allocator.rebuild();
+
+        assertEquals(2, allocator.allocate(68));
+        assertEquals(130, allocator.allocate(70));
+        assertEquals(200, allocator.size());
+    }
+}